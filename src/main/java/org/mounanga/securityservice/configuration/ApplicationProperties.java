@@ -1,9 +1,13 @@
 package org.mounanga.securityservice.configuration;
 
 import lombok.Getter;
+import org.mounanga.securityservice.enums.PasswordHashAlgorithm;
+import org.mounanga.securityservice.enums.SigningAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Getter
 @Component
 public class ApplicationProperties {
@@ -14,6 +18,153 @@ public class ApplicationProperties {
     @Value("${application.security.jwt.expiration}")
     private Long jwtExpiration;
 
+    @Value("${application.security.jwt.cache.max-size}")
+    private Integer jwtCacheMaxSize;
+
+    @Value("${application.security.jwt.cache.rejected-ttl}")
+    private Long jwtCacheRejectedTtl;
+
+    @Value("${application.security.jwt.signing.algorithm}")
+    private SigningAlgorithm jwtSigningAlgorithm;
+
+    @Value("${application.security.jwt.signing.private-key}")
+    private String jwtSigningPrivateKey;
+
+    @Value("${application.security.jwt.signing.public-key}")
+    private String jwtSigningPublicKey;
+
+    @Value("${application.security.jwt.signing.previous-public-keys}")
+    private List<String> jwtSigningPreviousPublicKeys;
+
+    @Value("${application.security.jwks.max-age}")
+    private Long jwksMaxAge;
+
+    @Value("${application.security.verification.code-key}")
+    private String verificationCodeKey;
+
+    @Value("${application.security.verification.code-length}")
+    private Integer verificationCodeLength;
+
+    @Value("${application.security.verification.code-alphabet}")
+    private String verificationCodeAlphabet;
+
+    @Value("${application.security.verification.code-pool-size}")
+    private Integer verificationCodePoolSize;
+
+    @Value("${application.security.verification.max-attempts}")
+    private Integer verificationMaxAttempts;
+
+    @Value("${application.verification.store.journal}")
+    private String verificationStoreJournal;
+
+    @Value("${application.verification.purge.chunk-size}")
+    private Integer verificationPurgeChunkSize;
+
+    @Value("${application.verification.purge.pause}")
+    private Long verificationPurgePause;
+
+    @Value("${application.verification.purge.lease}")
+    private Long verificationPurgeLease;
+
+    @Value("${application.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${application.datasource.replica.username}")
+    private String replicaUsername;
+
+    @Value("${application.datasource.replica.password}")
+    private String replicaPassword;
+
+    @Value("${application.datasource.read-your-writes.window}")
+    private Long readYourWritesWindow;
+
+    @Value("${application.datasource.read-your-writes.max-users}")
+    private Integer readYourWritesMaxUsers;
+
+    @Value("${application.users.import.chunk-size}")
+    private Integer userImportChunkSize;
+
+    @Value("${application.users.import.max-rows}")
+    private Integer userImportMaxRows;
+
+    @Value("${application.users.import.hashing-threads}")
+    private Integer userImportHashingThreads;
+
+    @Value("${application.users.uniqueness.expected-insertions}")
+    private Long uniquenessExpectedInsertions;
+
+    @Value("${application.users.uniqueness.false-positive-probability}")
+    private Double uniquenessFalsePositiveProbability;
+
+    @Value("${application.security.rate-limit.enabled}")
+    private Boolean rateLimitEnabled;
+
+    @Value("${application.security.rate-limit.max-keys}")
+    private Integer rateLimitMaxKeys;
+
+    @Value("${application.security.rate-limit.login.ip}")
+    private String rateLimitLoginIp;
+
+    @Value("${application.security.rate-limit.login.username}")
+    private String rateLimitLoginUsername;
+
+    @Value("${application.security.rate-limit.verification.ip}")
+    private String rateLimitVerificationIp;
+
+    @Value("${application.security.rate-limit.verification.email}")
+    private String rateLimitVerificationEmail;
+
+    @Value("${application.security.password.algorithm}")
+    private PasswordHashAlgorithm passwordHashAlgorithm;
+
+    @Value("${application.security.password.target-latency}")
+    private Long passwordHashTargetLatency;
+
+    @Value("${application.security.password.hashing.threads}")
+    private Integer passwordHashingThreads;
+
+    @Value("${application.security.password.hashing.queue-capacity}")
+    private Integer passwordHashingQueueCapacity;
+
+    @Value("${application.security.password.hashing.max-wait}")
+    private Long passwordHashingMaxWait;
+
+    @Value("${application.security.password.hashing.retry-after}")
+    private Long passwordHashingRetryAfter;
+
     @Value("${application.mailing.mail-notification}")
     private String notificationEmailAddress;
+
+    @Value("${application.mailing.executor.threads}")
+    private Integer mailExecutorThreads;
+
+    @Value("${application.mailing.executor.queue-capacity}")
+    private Integer mailExecutorQueueCapacity;
+
+    @Value("${application.mailing.outbox.batch-size}")
+    private Integer mailOutboxBatchSize;
+
+    @Value("${application.mailing.outbox.max-attempts}")
+    private Integer mailOutboxMaxAttempts;
+
+    @Value("${application.mailing.outbox.backoff}")
+    private Long mailOutboxBackoff;
+
+    @Value("${application.mailing.outbox.max-backoff}")
+    private Long mailOutboxMaxBackoff;
+
+    @Value("${application.mailing.login-notification.window}")
+    private Long loginNotificationWindow;
+
+    @Value("${application.mailing.login-notification.max-users}")
+    private Integer loginNotificationMaxUsers;
+
+    @Value("${application.mailing.login-notification.max-listed-logins}")
+    private Integer loginNotificationMaxListedLogins;
+
+    @Value("${application.mailing.login-notification.immediate-on-new-client}")
+    private Boolean loginNotificationImmediateOnNewClient;
+
+    @Value("${application.mailing.login-notification.known-client-ttl}")
+    private Long loginNotificationKnownClientTtl;
 }
@@ -0,0 +1,54 @@
+package org.mounanga.securityservice.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Mail delivery keeps its own pool of platform threads, even when {@code spring.threads.virtual.enabled} puts
+ * request handling, {@code @Async} and {@code @Scheduled} work on virtual threads: the Jakarta Mail SMTP
+ * transport does its socket I/O inside {@code synchronized} methods, which would pin the carrier thread of a
+ * virtual thread for the whole SMTP conversation.
+ */
+@Configuration
+public class AsyncConfiguration {
+
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+
+    @Bean(MAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor mailExecutor(@NotNull ApplicationProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMailExecutorThreads());
+        executor.setMaxPoolSize(properties.getMailExecutorThreads());
+        executor.setQueueCapacity(properties.getMailExecutorQueueCapacity());
+        executor.setThreadNamePrefix("mail-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Declaring the mail executor makes Spring Boot back off from its default executor,
+    // so the default one is declared here exactly as Spring Boot would.
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor applicationTaskExecutorVirtualThreads(@NotNull SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(@NotNull ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -1,37 +1,47 @@
 package org.mounanga.securityservice.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.security.BoundedPasswordEncoder;
+import org.mounanga.securityservice.security.PasswordEncoders;
+import org.mounanga.securityservice.security.UserAuthenticationProvider;
+import org.mounanga.securityservice.security.UserDetailsServiceImpl;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class BeansConfiguration {
 
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final ApplicationProperties properties;
+    private final MeterRegistry meterRegistry;
 
-    public BeansConfiguration(UserDetailsService userDetailsService) {
+    public BeansConfiguration(UserDetailsServiceImpl userDetailsService, ApplicationProperties properties, MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public AuthenticationProvider authenticationProvider(){
-        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
-        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
-        daoAuthenticationProvider.setPasswordEncoder( passwordEncoder());
-        return daoAuthenticationProvider;
+        return new UserAuthenticationProvider(userDetailsService, passwordEncoder(), userDetailsService);
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(
+                PasswordEncoders.calibrated(properties.getPasswordHashAlgorithm(), properties.getPasswordHashTargetLatency()),
+                properties.getPasswordHashingThreads(),
+                properties.getPasswordHashingQueueCapacity(),
+                properties.getPasswordHashingMaxWait(),
+                properties.getPasswordHashingRetryAfter(),
+                meterRegistry
+        );
     }
 
     @Bean
@@ -0,0 +1,67 @@
+package org.mounanga.securityservice.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to the primary pool once
+ * {@code application.datasource.replica.enabled} is on. The primary pool is configured by
+ * {@code spring.datasource.*} as before, the replica pool by {@code application.datasource.replica.*}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfiguration {
+
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+
+    @Bean(PRIMARY_DATA_SOURCE)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@NotNull DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(REPLICA_DATA_SOURCE)
+    @ConfigurationProperties("application.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@NotNull DataSourceProperties properties, @NotNull ApplicationProperties applicationProperties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(applicationProperties.getReplicaUrl())
+                .username(applicationProperties.getReplicaUsername())
+                .password(applicationProperties.getReplicaPassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@NotNull ApplicationProperties properties, @NotNull MeterRegistry meterRegistry) {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties.getReadYourWritesWindow(), properties.getReadYourWritesMaxUsers());
+        Gauge.builder("datasource.routing.sticky.users", tracker, ReadYourWritesTracker::size).register(meterRegistry);
+        return tracker;
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(@Qualifier(PRIMARY_DATA_SOURCE) DataSource primary, @Qualifier(REPLICA_DATA_SOURCE) DataSource replica,
+                                 ReadYourWritesTracker tracker, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, tracker, meterRegistry));
+    }
+}
@@ -0,0 +1,68 @@
+package org.mounanga.securityservice.configuration;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.entity.IdGenerators;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the rows of {@value IdGenerators#TABLE} past the ids already in the tables. Users, profiles and roles
+ * created while the ids came from identity columns would otherwise collide with the first blocks handed out
+ * by the table generator. Runs once the schema is up to date and before any request is served; a row already
+ * ahead of the table is left alone, so it is safe on every start and on every node.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorInitializer {
+
+    // segment of the generator -> table holding the ids it hands out
+    private static final Map<String, String> TABLES = Map.of(
+            IdGenerators.USER, "user",
+            IdGenerators.PROFILE, "profile",
+            IdGenerators.ROLE, "role");
+
+    private static final String SELECT = "select " + IdGenerators.VALUE_COLUMN + " from " + IdGenerators.TABLE
+            + " where " + IdGenerators.SEGMENT_COLUMN + " = ?";
+    private static final String INSERT = "insert into " + IdGenerators.TABLE + " (" + IdGenerators.SEGMENT_COLUMN + ", "
+            + IdGenerators.VALUE_COLUMN + ") values (?, ?)";
+    private static final String UPDATE = "update " + IdGenerators.TABLE + " set " + IdGenerators.VALUE_COLUMN + " = ? where "
+            + IdGenerators.SEGMENT_COLUMN + " = ? and " + IdGenerators.VALUE_COLUMN + " < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        TABLES.forEach(this::initialize);
+    }
+
+    void initialize(@NotNull String segment, @NotNull String table) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        // the stored value is the upper bound of the next block: the block then starts right after the highest id
+        long floor = (maxId == null ? 0 : maxId) + IdGenerators.ALLOCATION_SIZE;
+        List<Long> current = jdbcTemplate.queryForList(SELECT, Long.class, segment);
+        if (current.isEmpty()) {
+            try {
+                jdbcTemplate.update(INSERT, segment, floor);
+                log.info("id generator '{}' starts after id {}", segment, floor - IdGenerators.ALLOCATION_SIZE);
+                return;
+            } catch (DuplicateKeyException e) {
+                log.debug("id generator '{}' created concurrently", segment);
+            }
+        }
+        if (jdbcTemplate.update(UPDATE, floor, segment, floor) > 0) {
+            log.info("id generator '{}' moved past id {}", segment, floor - IdGenerators.ALLOCATION_SIZE);
+        }
+    }
+}
@@ -1,30 +1,81 @@
 package org.mounanga.securityservice.configuration;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.mounanga.securityservice.entity.Verification;
-import org.mounanga.securityservice.repository.VerificationRepository;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.service.VerificationStore;
+import org.mounanga.securityservice.service.implementation.SchedulerLeaseManager;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
 
+/**
+ * Purges the expired verifications in chunks of {@code application.verification.purge.chunk-size} rows, one
+ * short transaction each, pausing between chunks so the purge never holds locks for long. Only the node
+ * holding the purge lease runs it; a run that outlives its lease stops and leaves the rest for the next one.
+ */
 @Component
 @Slf4j
 public class MyScheduledTask {
 
-    private final VerificationRepository verificationRepository;
+    static final String PURGE_LEASE = "verification-purge";
 
-    public MyScheduledTask(VerificationRepository verificationRepository) {
-        this.verificationRepository = verificationRepository;
+    private final VerificationStore verificationStore;
+    private final SchedulerLeaseManager leaseManager;
+    private final ApplicationProperties properties;
+    private final Counter purgedRows;
+    private final Timer purgeDuration;
+
+    public MyScheduledTask(VerificationStore verificationStore, SchedulerLeaseManager leaseManager, ApplicationProperties properties, @NotNull MeterRegistry meterRegistry) {
+        this.verificationStore = verificationStore;
+        this.leaseManager = leaseManager;
+        this.properties = properties;
+        this.purgedRows = Counter.builder("verification.purge.rows").register(meterRegistry);
+        this.purgeDuration = Timer.builder("verification.purge.duration").register(meterRegistry);
     }
 
-    @Scheduled(cron = "0 */30 * * * *")
+    @Scheduled(cron = "${application.verification.purge.cron}")
     public void performTask() {
-        log.info("Task executed using cron at: {}", System.currentTimeMillis());
-        List<Verification> verifications = verificationRepository.findExpired(LocalDateTime.now());
-        verificationRepository.deleteAll(verifications);
-        log.info("Task executed successfully");
+        Duration lease = Duration.ofMillis(properties.getVerificationPurgeLease());
+        if (!leaseManager.tryAcquire(PURGE_LEASE, lease)) {
+            log.debug("Verification purge skipped, another node holds the lease");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int deleted = purge(lease);
+            log.info("Task executed successfully, {} expired verifications deleted", deleted);
+        } finally {
+            purgeDuration.record(Duration.ofNanos(System.nanoTime() - start));
+            leaseManager.release(PURGE_LEASE);
+        }
+    }
+
+    private int purge(@NotNull Duration lease) {
+        int chunkSize = properties.getVerificationPurgeChunkSize();
+        long pause = properties.getVerificationPurgePause();
+        LocalDateTime now = LocalDateTime.now();
+        // stop well before the lease runs out, another node may take it over right after
+        long deadline = System.nanoTime() + lease.toNanos() / 2;
+        int total = 0;
+        while (true) {
+            int deleted = verificationStore.deleteExpired(now, chunkSize);
+            total += deleted;
+            purgedRows.increment(deleted);
+            if (deleted < chunkSize || System.nanoTime() > deadline) {
+                return total;
+            }
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
     }
 
 }
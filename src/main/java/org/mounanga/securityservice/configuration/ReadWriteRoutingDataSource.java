@@ -0,0 +1,83 @@
+package org.mounanga.securityservice.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.enums.DataSourceRole;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else, including
+ * work outside of any transaction. A user whose own write was committed less than the read-your-writes window
+ * ago reads from the primary as well; only the commit of a read-write transaction opens that window.
+ * <p>
+ * The transaction is only known to be read-only once it has begun, after the JPA transaction manager asked for
+ * its connection: this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which asks for the target
+ * connection on the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadYourWritesTracker tracker;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter stickyConnections;
+
+    public ReadWriteRoutingDataSource(@NotNull DataSource primary, @NotNull DataSource replica, ReadYourWritesTracker tracker,
+                                      @NotNull MeterRegistry meterRegistry) {
+        this.tracker = tracker;
+        this.primaryConnections = Counter.builder("datasource.routing.connections").tag("target", "primary").tag("reason", "read-write").register(meterRegistry);
+        this.replicaConnections = Counter.builder("datasource.routing.connections").tag("target", "replica").tag("reason", "read-only").register(meterRegistry);
+        this.stickyConnections = Counter.builder("datasource.routing.connections").tag("target", "primary").tag("reason", "read-your-writes").register(meterRegistry);
+        setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String username = currentUsername();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite(username);
+            primaryConnections.increment();
+            return DataSourceRole.PRIMARY;
+        }
+        if (tracker.mustReadFromPrimary(username)) {
+            stickyConnections.increment();
+            return DataSourceRole.PRIMARY;
+        }
+        replicaConnections.increment();
+        return DataSourceRole.REPLICA;
+    }
+
+    private void recordWrite(String username) {
+        if (username == null || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // the window starts when the write becomes visible on the primary, not when it starts
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tracker.recordWrite(username);
+            }
+        });
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
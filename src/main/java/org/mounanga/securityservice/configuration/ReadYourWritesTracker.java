@@ -0,0 +1,64 @@
+package org.mounanga.securityservice.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, for a short window, the users whose own writes were just committed on the primary, so that their
+ * next reads are not served by a replica that may not have applied those writes yet. Only users seen writing
+ * within the window are kept, and expired entries are dropped once more than the configured number are held.
+ * <p>
+ * The writes are remembered on the node that committed them and only for authenticated users: the next request
+ * of that user on another node, or a flow with no login such as the registration or the password reset by code,
+ * can still read from a replica that has not caught up.
+ */
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final long windowMillis;
+    private final int maxUsers;
+
+    public ReadYourWritesTracker(long windowMillis, int maxUsers) {
+        this(windowMillis, maxUsers, Clock.systemDefaultZone());
+    }
+
+    public ReadYourWritesTracker(long windowMillis, int maxUsers, @NotNull Clock clock) {
+        this.windowMillis = windowMillis;
+        this.maxUsers = maxUsers;
+        this.clock = clock;
+    }
+
+    public void recordWrite(String username) {
+        if (username == null || windowMillis <= 0) {
+            return;
+        }
+        long now = clock.millis();
+        lastWrites.put(username, now);
+        if (lastWrites.size() > maxUsers) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowMillis);
+        }
+    }
+
+    public boolean mustReadFromPrimary(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(username);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (clock.millis() - writtenAt < windowMillis) {
+            return true;
+        }
+        lastWrites.remove(username, writtenAt);
+        return false;
+    }
+
+    public int size() {
+        return lastWrites.size();
+    }
+}
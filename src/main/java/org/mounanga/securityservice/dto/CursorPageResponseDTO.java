@@ -0,0 +1,9 @@
+package org.mounanga.securityservice.dto;
+
+import java.util.List;
+
+/**
+ * @param next the {@code after} token of the following page, {@code null} on the last page
+ */
+public record CursorPageResponseDTO<T>(List<T> content, String next) {
+}
@@ -0,0 +1,9 @@
+package org.mounanga.securityservice.dto;
+
+import java.util.List;
+
+/**
+ * @param rows one entry per imported row, in the order of the input
+ */
+public record UserImportResultDTO(int imported, int rejected, List<UserImportRowDTO> rows) {
+}
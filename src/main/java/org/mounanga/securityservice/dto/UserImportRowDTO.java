@@ -0,0 +1,13 @@
+package org.mounanga.securityservice.dto;
+
+import org.mounanga.securityservice.exception.FieldError;
+
+import java.util.List;
+
+/**
+ * @param row    position of the row in the input, starting at 1 (the CSV header is not counted)
+ * @param id     id of the created user, {@code null} when the row was rejected
+ * @param errors why the row was rejected, empty when it was imported
+ */
+public record UserImportRowDTO(int row, String username, Long id, List<FieldError> errors) {
+}
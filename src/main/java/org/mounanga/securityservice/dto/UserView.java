@@ -0,0 +1,34 @@
+package org.mounanga.securityservice.dto;
+
+import org.mounanga.securityservice.enums.Gender;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model of a user and its profile, selected straight from the columns by the read-only queries of
+ * {@code UserRepository}: no entity, no persistence context. The profile columns are null for a user without
+ * profile.
+ */
+public record UserView(Long id,
+                       String username,
+                       String email,
+                       Boolean enabled,
+                       LocalDateTime createdDate,
+                       String createdBy,
+                       LocalDateTime lastModifiedDate,
+                       String lastModifiedBy,
+                       Boolean passwordMustBeModified,
+                       Long profileId,
+                       String firstname,
+                       String lastname,
+                       String placeOfBirth,
+                       LocalDate dateOfBirth,
+                       String nationality,
+                       Gender gender,
+                       String personalIdentificationNumber,
+                       LocalDateTime profileCreatedDate,
+                       String profileCreatedBy,
+                       LocalDateTime profileLastModifiedDate,
+                       String profileLastModifiedBy) {
+}
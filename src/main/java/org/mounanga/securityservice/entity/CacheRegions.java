@@ -0,0 +1,18 @@
+package org.mounanga.securityservice.entity;
+
+/**
+ * Names of the second-level cache regions, sized and given a time to live in {@code ehcache.xml}. The cache is
+ * only used when {@code hibernate.cache.use_second_level_cache} is on; every region is then
+ * {@code READ_WRITE}, so a write made through Hibernate is never hidden by an entry cached before it.
+ */
+public final class CacheRegions {
+
+    public static final String USER = "user";
+    public static final String PROFILE = "profile";
+    public static final String ROLE = "role";
+    public static final String USER_ROLES = "user.roles";
+    public static final String USER_QUERIES = "user.queries";
+
+    private CacheRegions() {
+    }
+}
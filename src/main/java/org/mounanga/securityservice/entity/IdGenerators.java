@@ -0,0 +1,22 @@
+package org.mounanga.securityservice.entity;
+
+/**
+ * Table backed identifier generation shared by {@link User}, {@link Profile} and {@link Role}. Each entity has
+ * one row in {@value #TABLE} holding the upper bound of the next block of {@value #ALLOCATION_SIZE} ids: a node
+ * takes a whole block with one update, then hands out ids from memory. Unlike identity columns, the id is known
+ * before the insert, so Hibernate can send the inserts of a flush as JDBC batches.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generator";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String USER = "user";
+    public static final String PROFILE = "profile";
+    public static final String ROLE = "role";
+
+    private IdGenerators() {
+    }
+}
@@ -0,0 +1,31 @@
+package org.mounanga.securityservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per scheduled job that must run on a single node at a time: the node named in {@code owner} holds
+ * the job until {@code lockedUntil}.
+ */
+@Entity
+@Table(name = "scheduler_lease")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@ToString
+public class SchedulerLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+}
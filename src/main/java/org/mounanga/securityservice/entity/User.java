@@ -3,6 +3,9 @@ package org.mounanga.securityservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -12,7 +15,17 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Roles and profile are lazy: every read says what it needs through one of the named entity graphs below.
+ * The profile sits on the inverse side of its one-to-one, so Hibernate cannot proxy it and selects it on its
+ * own unless the graph fetches it with the user.
+ */
 @Entity
+@NamedEntityGraph(name = User.LOGIN_GRAPH, attributeNodes = {@NamedAttributeNode("roles"), @NamedAttributeNode("profile")})
+@NamedEntityGraph(name = User.DETAIL_GRAPH, attributeNodes = {@NamedAttributeNode("roles"), @NamedAttributeNode("profile")})
+@NamedEntityGraph(name = User.LIST_GRAPH, attributeNodes = @NamedAttributeNode("profile"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USER)
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,8 +35,14 @@ import java.util.List;
 @ToString
 public class User {
 
+    public static final String LOGIN_GRAPH = "User.login";
+    public static final String DETAIL_GRAPH = "User.detail";
+    public static final String LIST_GRAPH = "User.list";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = IdGenerators.USER)
+    @TableGenerator(name = IdGenerators.USER, table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.USER, allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -53,11 +72,17 @@ public class User {
     @Column(nullable = false)
     private Boolean passwordMustBeModified;
 
-    @ManyToMany(cascade=CascadeType.ALL, fetch = FetchType.EAGER)
-    @JoinTable(name="user_role",joinColumns = @JoinColumn(name="user_id") , inverseJoinColumns = @JoinColumn(name="role_id"))
+    @ToString.Exclude
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USER_ROLES)
+    @ManyToMany(cascade=CascadeType.ALL, fetch = FetchType.LAZY)
+    @JoinTable(name="user_role",joinColumns = @JoinColumn(name="user_id") , inverseJoinColumns = @JoinColumn(name="role_id"),
+            indexes = {@Index(name = "idx_user_role_user_role", columnList = "user_id, role_id"),
+                    @Index(name = "idx_user_role_role_user", columnList = "role_id, user_id")})
     private List<Role> roles;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @ToString.Exclude
+    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Profile profile;
 
     public boolean passwordNeedToBeModified(){
@@ -6,6 +6,11 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_verification_email_code_hash", columnList = "email, code_hash"),
+        @Index(name = "idx_verification_email_expires", columnList = "email, expires"),
+        @Index(name = "idx_verification_expires", columnList = "expires")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -17,12 +22,15 @@ public class Verification {
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
-    @Column(nullable = false)
-    private String code;
+    @Column(name = "code_hash", nullable = false, length = 64)
+    private String codeHash;
 
     @Column(nullable = false)
     private LocalDateTime expires;
 
-    @Column(nullable = false)
+    @Column(name = "email", nullable = false)
     private String email;
+
+    @Column(nullable = false)
+    private Integer attempts;
 }
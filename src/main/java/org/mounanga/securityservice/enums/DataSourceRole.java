@@ -0,0 +1,6 @@
+package org.mounanga.securityservice.enums;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
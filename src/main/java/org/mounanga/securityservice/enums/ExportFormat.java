@@ -0,0 +1,29 @@
+package org.mounanga.securityservice.enums;
+
+import org.mounanga.securityservice.exception.InvalidExportFormatException;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    ExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat from(String value) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equals(value == null ? null : value.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new InvalidExportFormatException(String.format("unknown export format '%s'", value),
+                        Arrays.stream(values()).map(format -> format.name().toLowerCase(Locale.ROOT)).toList()));
+    }
+}
@@ -0,0 +1,5 @@
+package org.mounanga.securityservice.enums;
+
+public enum MailStatus {
+    PENDING, DEAD
+}
@@ -0,0 +1,18 @@
+package org.mounanga.securityservice.enums;
+
+public enum PasswordHashAlgorithm {
+    BCRYPT("bcrypt"), ARGON2("argon2");
+
+    private final String id;
+
+    PasswordHashAlgorithm(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the {@code {id}} prefix stored in front of the hashes of this algorithm
+     */
+    public String getId() {
+        return id;
+    }
+}
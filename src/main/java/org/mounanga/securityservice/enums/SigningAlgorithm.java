@@ -0,0 +1,5 @@
+package org.mounanga.securityservice.enums;
+
+public enum SigningAlgorithm {
+    HS256, RS256, ES256
+}
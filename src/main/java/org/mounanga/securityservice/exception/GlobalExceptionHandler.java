@@ -1,6 +1,7 @@
 package org.mounanga.securityservice.exception;
 
 import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -82,6 +83,33 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ExceptionResponse> handleException(@NotNull InvalidCursorException exception) {
+        return ResponseEntity.status(BAD_REQUEST).body( new ExceptionResponse(
+                BAD_REQUEST.value(),
+                exception.getMessage(),
+                List.of()
+        ));
+    }
+
+    @ExceptionHandler(InvalidExportFormatException.class)
+    public ResponseEntity<ExceptionResponse> handleException(@NotNull InvalidExportFormatException exception) {
+        return ResponseEntity.status(BAD_REQUEST).body( new ExceptionResponse(
+                BAD_REQUEST.value(),
+                exception.getMessage(),
+                exception.getAcceptedFormats().stream().map(format -> "accepted format: " + format).toList()
+        ));
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ExceptionResponse> handleException(@NotNull InvalidImportException exception) {
+        return ResponseEntity.status(BAD_REQUEST).body( new ExceptionResponse(
+                BAD_REQUEST.value(),
+                exception.getMessage(),
+                List.of()
+        ));
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ExceptionResponse> handleException(@NotNull BadCredentialsException exception) {
         return ResponseEntity.status(UNAUTHORIZED).body( new ExceptionResponse(
@@ -100,6 +128,26 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(VerificationAttemptsExceededException.class)
+    public ResponseEntity<ExceptionResponse> handleException(@NotNull VerificationAttemptsExceededException exception) {
+        return ResponseEntity.status(TOO_MANY_REQUESTS).body( new ExceptionResponse(
+                TOO_MANY_REQUESTS.value(),
+                exception.getMessage(),
+                List.of()
+        ));
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ExceptionResponse> handleException(@NotNull PasswordHashingRejectedException exception) {
+        return ResponseEntity.status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body( new ExceptionResponse(
+                SERVICE_UNAVAILABLE.value(),
+                exception.getMessage(),
+                List.of()
+        ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ExceptionResponse> handleException(@NotNull Exception exception) {
         return ResponseEntity.status(INTERNAL_SERVER_ERROR).body( new ExceptionResponse(
@@ -0,0 +1,23 @@
+package org.mounanga.securityservice.exception;
+
+import java.util.List;
+
+public class InvalidExportFormatException extends RuntimeException {
+
+    private final List<String> acceptedFormats;
+
+    /**
+     * Constructs a new runtime exception with the specified detail message.
+     *
+     * @param message         the detail message.
+     * @param acceptedFormats the formats the export accepts.
+     */
+    public InvalidExportFormatException(String message, List<String> acceptedFormats) {
+        super(message);
+        this.acceptedFormats = acceptedFormats;
+    }
+
+    public List<String> getAcceptedFormats() {
+        return acceptedFormats;
+    }
+}
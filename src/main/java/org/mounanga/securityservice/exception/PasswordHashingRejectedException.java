@@ -0,0 +1,13 @@
+package org.mounanga.securityservice.exception;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+    final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,8 @@
+package org.mounanga.securityservice.exception;
+
+public class VerificationAttemptsExceededException extends RuntimeException {
+
+    public VerificationAttemptsExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package org.mounanga.securityservice.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.mounanga.securityservice.entity.MailOutbox;
+import org.mounanga.securityservice.enums.MailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    /**
+     * Locks the next due mails, skipping the rows already locked by another node ({@code FOR UPDATE SKIP LOCKED}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from MailOutbox m where m.status = :status and m.nextAttemptAt <= :now order by m.id")
+    List<MailOutbox> findDue(@Param("status") MailStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(MailStatus status);
+}
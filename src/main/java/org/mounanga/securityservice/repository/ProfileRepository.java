@@ -1,9 +1,27 @@
 package org.mounanga.securityservice.repository;
 
+import jakarta.persistence.QueryHint;
 import org.mounanga.securityservice.entity.Profile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ProfileRepository extends JpaRepository<Profile, Long> {
 
     boolean existsByPersonalIdentificationNumber(String personalIdentificationNumber);
+
+    @Query("select p.personalIdentificationNumber from Profile p where p.personalIdentificationNumber in :numbers")
+    List<String> findExistingPersonalIdentificationNumbers(@Param("numbers") Collection<String> numbers);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select p.personalIdentificationNumber from Profile p")
+    Stream<String> streamPersonalIdentificationNumbers();
 }
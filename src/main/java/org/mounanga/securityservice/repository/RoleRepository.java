@@ -1,18 +1,57 @@
 package org.mounanga.securityservice.repository;
 
+import org.mounanga.securityservice.dto.RoleResponseDTO;
 import org.mounanga.securityservice.entity.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
+
+    // read-only projections, selected straight into RoleResponseDTO without loading any entity
+    String SELECT_VIEW = "select new org.mounanga.securityservice.dto.RoleResponseDTO(r.id, r.name, r.description, r.createdDate, "
+            + "r.createdBy, r.lastModifiedDate, r.lastModifiedBy) from Role r ";
+    String SEARCH_PREDICATE = "(r.name like :kw or r.description like :kw)";
+    String AFTER_PREDICATE = "(r.name > :name or (r.name = :name and r.id > :id))";
+    String KEYSET_ORDER = " order by r.name asc, r.id asc";
+
+    @Query(SELECT_VIEW + "where r.name = :name")
+    Optional<RoleResponseDTO> findViewByName(@Param("name") String name);
+
+    @Query(SELECT_VIEW + "where r.id = :id")
+    Optional<RoleResponseDTO> findViewById(@Param("id") Long id);
+
+    @Query(SELECT_VIEW)
+    List<RoleResponseDTO> findAllViews();
+
+    @Query(value = SELECT_VIEW, countQuery = "select count(r) from Role r")
+    Page<RoleResponseDTO> findAllViews(Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + SEARCH_PREDICATE + " order by r.name asc")
+    Slice<RoleResponseDTO> search(@Param("kw") String keyword, Pageable pageable);
+
+    // keyset pagination on (name, id), see UserRepository
+
+    @Query(SELECT_VIEW + KEYSET_ORDER)
+    Slice<RoleResponseDTO> findFirstPage(Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + AFTER_PREDICATE + KEYSET_ORDER)
+    Slice<RoleResponseDTO> findPageAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + SEARCH_PREDICATE + KEYSET_ORDER)
+    Slice<RoleResponseDTO> searchFirstPage(@Param("kw") String keyword, Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + SEARCH_PREDICATE + " and " + AFTER_PREDICATE + KEYSET_ORDER)
+    Slice<RoleResponseDTO> searchPageAfter(@Param("kw") String keyword, @Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    // entities, for the write paths
+
     Optional<Role> findByName(String name);
     boolean existsByName(String name);
-
-    @Query("select r from Role r where r.name like :kw or r.description like :kw order by r.name asc")
-    Page<Role> search(@Param("kw") String keyword, Pageable pageable);
 }
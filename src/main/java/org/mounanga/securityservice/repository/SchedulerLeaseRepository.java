@@ -0,0 +1,30 @@
+package org.mounanga.securityservice.repository;
+
+import org.mounanga.securityservice.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * @return 1 when the lease was free, expired or already held by {@code owner}, 0 when another node holds it
+     */
+    @Modifying
+    @Query("update SchedulerLease l set l.owner = :owner, l.lockedUntil = :until where l.name = :name and (l.lockedUntil < :now or l.owner = :owner)")
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Fails with a duplicate key when another node created the lease first.
+     */
+    @Modifying
+    @Query(value = "insert into scheduler_lease (name, owner, locked_until) values (:name, :owner, :until)", nativeQuery = true)
+    int create(@Param("name") String name, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update SchedulerLease l set l.lockedUntil = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -1,20 +1,138 @@
 package org.mounanga.securityservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.mounanga.securityservice.dto.UserView;
+import org.mounanga.securityservice.entity.CacheRegions;
 import org.mounanga.securityservice.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // read-only projections, selected straight into UserView without loading any entity; the lookups of a
+    // single user go through the query cache when the second-level cache is on
+    String SELECT_VIEW = "select new org.mounanga.securityservice.dto.UserView(u.id, u.username, u.email, u.enabled, u.createdDate, "
+            + "u.createdBy, u.lastModifiedDate, u.lastModifiedBy, u.passwordMustBeModified, p.id, p.firstname, p.lastname, "
+            + "p.placeOfBirth, p.dateOfBirth, p.nationality, p.gender, p.personalIdentificationNumber, p.createdDate, p.createdBy, "
+            + "p.lastModifiedDate, p.lastModifiedBy) from User u left join u.profile p ";
+    String SEARCH_PREDICATE = "(p.firstname like :kw or p.lastname like :kw or p.personalIdentificationNumber like :kw)";
+    String AFTER_PREDICATE = "(u.username > :username or (u.username = :username and u.id > :id))";
+    String KEYSET_ORDER = " order by u.username asc, u.id asc";
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.USER_QUERIES)})
+    @Query(SELECT_VIEW + "where u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.USER_QUERIES)})
+    @Query(SELECT_VIEW + "where u.username = :username")
+    Optional<UserView> findViewByUsername(@Param("username") String username);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.USER_QUERIES)})
+    @Query(SELECT_VIEW + "where u.email = :email")
+    Optional<UserView> findViewByEmail(@Param("email") String email);
+
+    @Query(SELECT_VIEW)
+    List<UserView> findAllViews();
+
+    @Query(value = SELECT_VIEW, countQuery = "select count(u) from User u")
+    Page<UserView> findAllViews(Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + SEARCH_PREDICATE)
+    Slice<UserView> search(@Param("kw") String keyword, Pageable pageable);
+
+    // keyset pagination on (username, id): slices never run a count query, and the seek predicate starts
+    // every page on the username index wherever it is in the table
+
+    @Query(SELECT_VIEW + KEYSET_ORDER)
+    Slice<UserView> findFirstPage(Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + AFTER_PREDICATE + KEYSET_ORDER)
+    Slice<UserView> findPageAfter(@Param("username") String username, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + SEARCH_PREDICATE + KEYSET_ORDER)
+    Slice<UserView> searchFirstPage(@Param("kw") String keyword, Pageable pageable);
+
+    @Query(SELECT_VIEW + "where " + SEARCH_PREDICATE + " and " + AFTER_PREDICATE + KEYSET_ORDER)
+    Slice<UserView> searchPageAfter(@Param("kw") String keyword, @Param("username") String username, @Param("id") Long id, Pageable pageable);
+
+    // entities, for the write paths
+
+    @EntityGraph(User.DETAIL_GRAPH)
+    @Override
+    Optional<User> findById(Long id);
+
+    @EntityGraph(User.LIST_GRAPH)
+    @Override
+    List<User> findAll();
+
+    @EntityGraph(User.LIST_GRAPH)
+    @Override
+    Page<User> findAll(Pageable pageable);
+
+    @EntityGraph(User.DETAIL_GRAPH)
     Optional<User> findByUsername(String username);
+
+    @EntityGraph(User.DETAIL_GRAPH)
     Optional<User> findByEmail(String email);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.USER_QUERIES)})
+    @EntityGraph(User.LOGIN_GRAPH)
+    @Query("select u from User u where u.username = :login or u.email = :login")
+    List<User> findByUsernameOrEmail(@Param("login") String login);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Every user, read through a server-side cursor 500 rows at a time. Must be consumed
+     * inside a transaction and closed.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select u from User u left join fetch u.profile order by u.id")
+    Stream<User> streamAll();
+
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
-    @Query("select u from User u where u.profile.firstname like:kw or u.profile.lastname like :kw or u.profile.personalIdentificationNumber like:kw")
-    Page<User> search(@Param("kw") String keyword, Pageable pageable);
+    /**
+     * The fields, among {@code username}, {@code email} and {@code personalIdentificationNumber}, whose value
+     * is already taken, in a single round trip. A {@code null} value is not looked up.
+     */
+    @Query(value = "select 'username' from user where username = :username "
+            + "union all select 'email' from user where email = :email "
+            + "union all select 'personalIdentificationNumber' from profile where personal_identification_number = :pin",
+            nativeQuery = true)
+    List<String> findFieldsInUse(@Param("username") String username, @Param("email") String email, @Param("pin") String personalIdentificationNumber);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select u.username from User u")
+    Stream<String> streamUsernames();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select u.email from User u")
+    Stream<String> streamEmails();
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
@@ -2,18 +2,29 @@ package org.mounanga.securityservice.repository;
 
 import org.mounanga.securityservice.entity.Verification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 public interface VerificationRepository extends JpaRepository<Verification, String> {
 
-    @Query("select v from Verification v where v.email like :email and v.code like :code")
-    Optional<Verification> findByCodeAndEmail(@Param("code") String code, @Param("email") String email);
+    Optional<Verification> findFirstByEmailAndCodeHash(String email, String codeHash);
 
-    @Query("select v from Verification v where v.expires < :now")
-    List<Verification> findExpired(@Param("now") LocalDateTime now);
+    @Modifying
+    @Query("update Verification v set v.attempts = v.attempts + 1 where v.email = :email and v.attempts < :maxAttempts")
+    int incrementAttemptsBelow(@Param("email") String email, @Param("maxAttempts") int maxAttempts);
+
+    @Query("select count(v) > 0 from Verification v where v.email = :email and v.attempts >= :maxAttempts")
+    boolean existsLockedByEmail(@Param("email") String email, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Deletes at most {@code limit} expired verifications in a single statement, so that a large backlog is
+     * purged in short transactions.
+     */
+    @Modifying
+    @Query(value = "delete from verification where expires < :now limit :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
 }
@@ -0,0 +1,31 @@
+package org.mounanga.securityservice.restcontroller;
+
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.security.SigningKeys;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/.well-known")
+public class JwksRestController {
+
+    private final Map<String, List<Map<String, Object>>> jwks;
+    private final CacheControl cacheControl;
+
+    public JwksRestController(SigningKeys signingKeys, ApplicationProperties properties) {
+        this.jwks = Map.of("keys", signingKeys.toJwks());
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(properties.getJwksMaxAge())).cachePublic();
+    }
+
+    @GetMapping("/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> getJwks() {
+        return ResponseEntity.ok().cacheControl(cacheControl).body(jwks);
+    }
+}
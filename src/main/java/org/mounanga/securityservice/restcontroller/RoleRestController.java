@@ -1,5 +1,6 @@
 package org.mounanga.securityservice.restcontroller;
 
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
 import org.mounanga.securityservice.dto.RoleRequestDTO;
 import org.mounanga.securityservice.dto.RoleResponseDTO;
 import org.mounanga.securityservice.service.RoleService;
@@ -45,6 +46,19 @@ public class RoleRestController {
         return roleService.searchAllRoles(keyword, page, size);
     }
 
+    @GetMapping("/list/cursor")
+    public CursorPageResponseDTO<RoleResponseDTO> findAllRoles(@RequestParam(name = "after", required = false) String after,
+                                                               @RequestParam(name = "size", defaultValue = "9") int size) {
+        return roleService.findAllRoles(after, size);
+    }
+
+    @GetMapping("/search/cursor")
+    public CursorPageResponseDTO<RoleResponseDTO> searchAllRoles(@RequestParam(name = "keyword", defaultValue = " ") String keyword,
+                                                                 @RequestParam(name = "after", required = false) String after,
+                                                                 @RequestParam(name = "size", defaultValue = "9") int size) {
+        return roleService.searchAllRoles(keyword, after, size);
+    }
+
     @DeleteMapping("/delete/{id}")
     public void deleteRoleById(@PathVariable Long id) {
         roleService.deleteRoleById(id);
@@ -1,25 +1,42 @@
 package org.mounanga.securityservice.restcontroller;
 
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
 import org.mounanga.securityservice.dto.UpdatePasswordRequestDTO;
+import org.mounanga.securityservice.dto.UserImportResultDTO;
 import org.mounanga.securityservice.dto.UserRequestDTO;
 import org.mounanga.securityservice.dto.UserResponseDTO;
 import org.mounanga.securityservice.dto.UserRoleRequestDTO;
+import org.mounanga.securityservice.enums.ExportFormat;
 import org.mounanga.securityservice.service.UserService;
+import org.mounanga.securityservice.service.implementation.UserExportService;
+import org.mounanga.securityservice.service.implementation.UserImportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @RestController
 @RequestMapping("/users")
 public class UserRestController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
 
-    public UserRestController(UserService userService) {
+    public UserRestController(UserService userService, UserExportService userExportService, UserImportService userImportService) {
         this.userService = userService;
+        this.userExportService = userExportService;
+        this.userImportService = userImportService;
     }
 
     @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
@@ -28,6 +45,22 @@ public class UserRestController {
         return userService.createUser(userRequestDTO);
     }
 
+    /**
+     * Creates every user of the JSON array, or of the CSV file (see {@link UserImportService#CSV_COLUMNS} for
+     * the header), and reports the outcome row by row.
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public UserImportResultDTO importUsers(InputStream body) throws IOException {
+        return userImportService.importJson(body);
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public UserImportResultDTO importUsersFromCsv(InputStream body) throws IOException {
+        return userImportService.importCsv(new InputStreamReader(body, UTF_8));
+    }
+
     @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
     @PutMapping("/update/{id}")
     public UserResponseDTO updateUser(@PathVariable Long id, @RequestBody UserRequestDTO userRequestDTO) {
@@ -91,6 +124,20 @@ public class UserRestController {
         return userService.getUsers();
     }
 
+    /**
+     * Same list, streamed one user per line while it is read from the database: {@code ?format=ndjson} or
+     * {@code ?format=csv}.
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
+    @GetMapping(value = "/list", params = "format")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(name = "format") String exportFormat) {
+        ExportFormat format = ExportFormat.from(exportFormat);
+        StreamingResponseBody body = outputStream -> userExportService.export(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType() + ";charset=UTF-8"))
+                .body(body);
+    }
+
     @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
     @GetMapping("/search")
     public List<UserResponseDTO> searchUsers(@RequestParam(name = "keyword", defaultValue = " ") String keyword,
@@ -99,6 +146,21 @@ public class UserRestController {
         return userService.searchUsers(keyword, page, size);
     }
 
+    @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
+    @GetMapping("/list/cursor")
+    public CursorPageResponseDTO<UserResponseDTO> getUsers(@RequestParam(name = "after", required = false) String after,
+                                                           @RequestParam(name = "size", defaultValue = "9") int size) {
+        return userService.getUsers(after, size);
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN','SUPER_ADMIN')")
+    @GetMapping("/search/cursor")
+    public CursorPageResponseDTO<UserResponseDTO> searchUsers(@RequestParam(name = "keyword", defaultValue = " ") String keyword,
+                                                              @RequestParam(name = "after", required = false) String after,
+                                                              @RequestParam(name = "size", defaultValue = "9") int size) {
+        return userService.searchUsers(keyword, after, size);
+    }
+
 
     private String getCurrentUsername() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
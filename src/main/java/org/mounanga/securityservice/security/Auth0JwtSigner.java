@@ -0,0 +1,40 @@
+package org.mounanga.securityservice.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.mounanga.securityservice.entity.Role;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Generic signer backed by java-jwt, used for the asymmetric algorithms.
+ */
+class Auth0JwtSigner implements JwtSigner {
+
+    private static final String[] NO_ROLES = new String[0];
+
+    private final Algorithm algorithm;
+
+    Auth0JwtSigner(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public String sign(String subject, Collection<Role> roles, String fullName, long expiresAtMillis) {
+        String[] roleNames = NO_ROLES;
+        if (roles != null && !roles.isEmpty()) {
+            roleNames = new String[roles.size()];
+            int i = 0;
+            for (Role role : roles) {
+                roleNames[i++] = role.getName();
+            }
+        }
+        return JWT.create()
+                .withSubject(subject)
+                .withArrayClaim("roles", roleNames)
+                .withClaim("fullName", fullName)
+                .withExpiresAt(new Date(expiresAtMillis))
+                .sign(algorithm);
+    }
+}
@@ -0,0 +1,146 @@
+package org.mounanga.securityservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.exception.PasswordHashingRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs every hash and verification of the delegate encoder on a core-sized pool with a bounded queue, so that a
+ * burst of logins cannot take every request thread. When the queue is full, or a task waited longer than the
+ * configured maximum, the caller gets a {@link PasswordHashingRejectedException} instead of queuing up.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String REJECTED_MESSAGE = "Too many authentication requests, please retry later";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+    private final long retryAfterSeconds;
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejections;
+
+    public BoundedPasswordEncoder(@NotNull PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMillis,
+                                  long retryAfterSeconds, @NotNull MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWaitMillis = maxWaitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.waitTimer = Timer.builder("security.password.hashing.wait").register(meterRegistry);
+        this.encodeTimer = Timer.builder("security.password.hashing.duration").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hashing.duration").tag("operation", "matches").register(meterRegistry);
+        this.rejections = Counter.builder("security.password.hashing.rejections").register(meterRegistry);
+        Gauge.builder("security.password.hashing.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * @return the encoder doing the actual work, for bulk jobs that bring their own threads
+     */
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Called by the container when the bean is destroyed.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Timer latencyTimer, Supplier<T> operation) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                if (startedAt - submittedAt > TimeUnit.MILLISECONDS.toNanos(maxWaitMillis)) {
+                    // the caller has already given up: do not burn CPU on a result nobody reads
+                    throw new CancellationException();
+                }
+                try {
+                    return operation.get();
+                } finally {
+                    latencyTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw reject();
+        }
+        try {
+            // once started a hash is left to finish: the remaining wait is bounded by a single hash
+            return future.get(maxWaitMillis + hashAllowanceMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            future.cancel(false);
+            throw reject();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw reject();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                throw reject();
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private long hashAllowanceMillis() {
+        double mean = Math.max(encodeTimer.mean(TimeUnit.MILLISECONDS), matchesTimer.mean(TimeUnit.MILLISECONDS));
+        return Math.max(1000L, (long) (mean * 4));
+    }
+
+    private @NotNull PasswordHashingRejectedException reject() {
+        rejections.increment();
+        log.warn("Password hashing rejected, queue size: {}", executor.getQueue().size());
+        return new PasswordHashingRejectedException(REJECTED_MESSAGE, retryAfterSeconds);
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.mounanga.securityservice.security;
+
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.util.ObjectPool;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * HS256 signer keyed once at startup. Each signature uses an initialized {@link Mac} and buffers reused from an
+ * {@link ObjectPool}, cloned from a keyed prototype when the pool needs more: the header is encoded once, the
+ * payload JSON is written straight into a reusable byte buffer, and the only allocation left per token is the
+ * resulting {@link String}.
+ */
+class HmacJwtSigner implements JwtSigner {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final byte[] ENCODED_HEADER = (Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(UTF_8)) + ".").getBytes(US_ASCII);
+
+    private final ObjectPool<Buffers> buffers;
+
+    HmacJwtSigner(byte[] secret) {
+        Mac prototype = newMac(new SecretKeySpec(secret, HMAC_SHA256));
+        this.buffers = new ObjectPool<>(() -> new Buffers(copy(prototype)));
+    }
+
+    @Override
+    public String sign(String subject, Collection<Role> roles, String fullName, long expiresAtMillis) {
+        Buffers buffers = this.buffers.acquire();
+        try {
+            return sign(buffers, subject, roles, fullName, expiresAtMillis);
+        } finally {
+            this.buffers.release(buffers);
+        }
+    }
+
+    private static String sign(Buffers buffers, String subject, Collection<Role> roles, String fullName, long expiresAtMillis) {
+        ByteSink payload = buffers.payload;
+        payload.reset();
+        payload.ascii("{\"sub\":");
+        payload.jsonString(subject);
+        payload.ascii(",\"roles\":[");
+        if (roles != null) {
+            boolean first = true;
+            for (Role role : roles) {
+                if (!first) {
+                    payload.ascii(',');
+                }
+                payload.jsonString(role.getName());
+                first = false;
+            }
+        }
+        payload.ascii("],\"fullName\":");
+        payload.jsonString(fullName);
+        payload.ascii(",\"exp\":");
+        payload.number(expiresAtMillis / 1000);
+        payload.ascii('}');
+
+        ByteSink token = buffers.token;
+        token.reset();
+        token.bytes(ENCODED_HEADER);
+        token.base64Url(payload.array, payload.length);
+        Mac mac = buffers.mac;
+        mac.update(token.array, 0, token.length);
+        try {
+            mac.doFinal(buffers.signature, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        token.ascii('.');
+        token.base64Url(buffers.signature, buffers.signature.length);
+        return new String(token.array, 0, token.length, US_ASCII);
+    }
+
+    private static @NotNull Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + HMAC_SHA256, e);
+        }
+    }
+
+    private static @NotNull Mac copy(@NotNull Mac prototype) {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(HMAC_SHA256 + " cannot be cloned", e);
+        }
+    }
+
+    private static final class Buffers {
+        private final Mac mac;
+        private final ByteSink payload = new ByteSink(256);
+        private final ByteSink token = new ByteSink(512);
+        private final byte[] signature = new byte[32];
+
+        private Buffers(Mac mac) {
+            this.mac = mac;
+        }
+    }
+
+    /**
+     * Growable byte buffer with just enough JSON, UTF-8 and base64url support to write a token.
+     */
+    static final class ByteSink {
+
+        private static final byte[] BASE64_URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(US_ASCII);
+        private static final byte[] HEX = "0123456789abcdef".getBytes(US_ASCII);
+
+        private byte[] array;
+        private int length;
+
+        ByteSink(int capacity) {
+            this.array = new byte[capacity];
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        void ascii(char c) {
+            ensure(1);
+            array[length++] = (byte) c;
+        }
+
+        void ascii(@NotNull String value) {
+            int size = value.length();
+            ensure(size);
+            for (int i = 0; i < size; i++) {
+                array[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        void bytes(@NotNull byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, array, length, value.length);
+            length += value.length;
+        }
+
+        void number(long value) {
+            if (value < 0) {
+                ascii('-');
+                value = -value;
+            }
+            ensure(20);
+            int start = length;
+            do {
+                array[length++] = (byte) ('0' + (value % 10));
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        }
+
+        void jsonString(String value) {
+            if (value == null) {
+                ascii("null");
+                return;
+            }
+            int size = value.length();
+            ensure(size * 6 + 2);
+            array[length++] = '"';
+            for (int i = 0; i < size; i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    array[length++] = '\\';
+                    array[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    escapeControl(c);
+                } else if (c < 0x80) {
+                    array[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    array[length++] = (byte) (0xC0 | (c >> 6));
+                    array[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    array[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    array[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    array[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    array[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    array[length++] = '?';
+                } else {
+                    array[length++] = (byte) (0xE0 | (c >> 12));
+                    array[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    array[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            array[length++] = '"';
+        }
+
+        void base64Url(byte[] source, int sourceLength) {
+            ensure((sourceLength + 2) / 3 * 4);
+            int i = 0;
+            for (; i + 2 < sourceLength; i += 3) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+                array[length++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                array[length++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                array[length++] = BASE64_URL[(bits >>> 6) & 0x3F];
+                array[length++] = BASE64_URL[bits & 0x3F];
+            }
+            int remaining = sourceLength - i;
+            if (remaining == 1) {
+                int bits = (source[i] & 0xFF) << 16;
+                array[length++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                array[length++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+                array[length++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                array[length++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                array[length++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            }
+        }
+
+        private void escapeControl(char c) {
+            array[length++] = '\\';
+            switch (c) {
+                case '\b' -> array[length++] = 'b';
+                case '\f' -> array[length++] = 'f';
+                case '\n' -> array[length++] = 'n';
+                case '\r' -> array[length++] = 'r';
+                case '\t' -> array[length++] = 't';
+                default -> {
+                    array[length++] = 'u';
+                    array[length++] = '0';
+                    array[length++] = '0';
+                    array[length++] = HEX[c >> 4];
+                    array[length++] = HEX[c & 0xF];
+                }
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > array.length) {
+                array = Arrays.copyOf(array, Math.max(array.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -2,14 +2,13 @@ package org.mounanga.securityservice.security;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.jetbrains.annotations.NotNull;
-import org.mounanga.securityservice.configuration.ApplicationProperties;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -29,10 +28,12 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
     private static final String ROLES = "roles";
     private static final String AUTHORIZATION = "Authorization";
 
-    private final ApplicationProperties properties;
+    private final JWTVerifier verifier;
+    private final VerifiedTokenCache tokenCache;
 
-    public JWTAuthorizationFilter(ApplicationProperties properties) {
-        this.properties = properties;
+    public JWTAuthorizationFilter(@NotNull SigningKeys signingKeys, VerifiedTokenCache tokenCache) {
+        this.verifier = JWT.require(signingKeys.getAlgorithm()).build();
+        this.tokenCache = tokenCache;
     }
 
 
@@ -44,18 +45,41 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
             return;
         }
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(properties.getJwtSecret())).build();
-        String jwt = header.substring(7);
-        DecodedJWT decodedJWT = verifier.verify(jwt);
+        String jwt = header.substring(BEARER.length());
+        UsernamePasswordAuthenticationToken authentication = resolveAuthentication(jwt);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        filterChain.doFilter(request, response);
+    }
+
+    private UsernamePasswordAuthenticationToken resolveAuthentication(String jwt) {
+        String key = tokenCache.key(jwt);
+        VerifiedTokenCache.CachedToken cached = tokenCache.get(key);
+        if (cached != null) {
+            if (cached.isRejected()) {
+                throw new JWTVerificationException("The token was rejected");
+            }
+            return cached.authentication();
+        }
+        try {
+            DecodedJWT decodedJWT = verifier.verify(jwt);
+            UsernamePasswordAuthenticationToken authentication = toAuthentication(decodedJWT);
+            tokenCache.putVerified(key, authentication, decodedJWT.getExpiresAtAsInstant());
+            return authentication;
+        } catch (JWTVerificationException e) {
+            tokenCache.putRejected(key);
+            throw e;
+        }
+    }
+
+    private @NotNull UsernamePasswordAuthenticationToken toAuthentication(@NotNull DecodedJWT decodedJWT) {
         String username = decodedJWT.getSubject();
-        List<String> roles = decodedJWT.getClaims().get(ROLES).asList(String.class);
+        List<String> roles = decodedJWT.getClaim(ROLES).asList(String.class);
         Collection<GrantedAuthority> authorities = new ArrayList<>();
-        for (String role : roles){
-            authorities.add(new SimpleGrantedAuthority(role));
+        if (roles != null) {
+            for (String role : roles){
+                authorities.add(new SimpleGrantedAuthority(role));
+            }
         }
-
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(username,null,authorities);
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        filterChain.doFilter(request, response);
+        return new UsernamePasswordAuthenticationToken(username,null,authorities);
     }
 }
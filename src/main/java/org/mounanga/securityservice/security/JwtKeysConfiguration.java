@@ -0,0 +1,46 @@
+package org.mounanga.securityservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.enums.SigningAlgorithm;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.List;
+
+@Slf4j
+@Configuration
+public class JwtKeysConfiguration {
+
+    @Bean
+    public SigningKeys signingKeys(@NotNull ApplicationProperties properties) {
+        SigningAlgorithm algorithm = properties.getJwtSigningAlgorithm();
+        if (algorithm == SigningAlgorithm.HS256) {
+            return SigningKeys.hmac(properties.getJwtSecret());
+        }
+        String keyAlgorithm = algorithm == SigningAlgorithm.RS256 ? "RSA" : "EC";
+        List<PublicKey> previousKeys = properties.getJwtSigningPreviousPublicKeys().stream()
+                .filter(StringUtils::hasText)
+                .map(location -> PemKeyReader.readPublicKey(Path.of(location), keyAlgorithm))
+                .toList();
+
+        KeyPair activeKeyPair;
+        if (StringUtils.hasText(properties.getJwtSigningPrivateKey()) && StringUtils.hasText(properties.getJwtSigningPublicKey())) {
+            activeKeyPair = new KeyPair(
+                    PemKeyReader.readPublicKey(Path.of(properties.getJwtSigningPublicKey()), keyAlgorithm),
+                    PemKeyReader.readPrivateKey(Path.of(properties.getJwtSigningPrivateKey()), keyAlgorithm)
+            );
+        } else {
+            log.warn("No {} signing key configured: using an ephemeral key pair, tokens will not survive a restart", algorithm);
+            activeKeyPair = SigningKeys.generateKeyPair(algorithm);
+        }
+        SigningKeys signingKeys = SigningKeys.asymmetric(algorithm, activeKeyPair, previousKeys);
+        log.info("{} signing key '{}' loaded with {} previous key(s)", algorithm, signingKeys.getActiveKeyId(), previousKeys.size());
+        return signingKeys;
+    }
+}
@@ -0,0 +1,13 @@
+package org.mounanga.securityservice.security;
+
+import org.mounanga.securityservice.entity.Role;
+
+import java.util.Collection;
+
+/**
+ * Signs the claim set issued at login: subject, role names, full name and expiration.
+ */
+interface JwtSigner {
+
+    String sign(String subject, Collection<Role> roles, String fullName, long expiresAtMillis);
+}
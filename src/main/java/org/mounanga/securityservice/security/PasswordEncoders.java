@@ -0,0 +1,97 @@
+package org.mounanga.securityservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.enums.PasswordHashAlgorithm;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the {@code {id}}-prefixed password encoder whose work factor is calibrated, on the running hardware,
+ * to a target latency per hash. Hashes stored without prefix are BCrypt hashes from before the prefixes.
+ */
+@Slf4j
+public final class PasswordEncoders {
+
+    public static final int MIN_BCRYPT_STRENGTH = 10;
+    public static final int MAX_BCRYPT_STRENGTH = 16;
+    public static final int MIN_ARGON2_ITERATIONS = 2;
+    public static final int MAX_ARGON2_ITERATIONS = 10;
+
+    // OWASP recommendation for Argon2id: 19 MiB of memory, one lane
+    static final int ARGON2_SALT_LENGTH = 16;
+    static final int ARGON2_HASH_LENGTH = 32;
+    static final int ARGON2_PARALLELISM = 1;
+    static final int ARGON2_MEMORY_KIB = 19 * 1024;
+
+    private static final String CALIBRATION_PASSWORD = "Calibration-Password-1";
+
+    private PasswordEncoders() {
+    }
+
+    /**
+     * @param algorithm          the algorithm of new hashes
+     * @param targetLatencyMillis the time a single hash should take on this machine
+     */
+    public static @NotNull DelegatingPasswordEncoder calibrated(@NotNull PasswordHashAlgorithm algorithm, long targetLatencyMillis) {
+        int bcryptStrength = calibrateBCryptStrength(targetLatencyMillis);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        encoders.put(PasswordHashAlgorithm.BCRYPT.getId(), bcrypt);
+        if (algorithm == PasswordHashAlgorithm.ARGON2) {
+            encoders.put(PasswordHashAlgorithm.ARGON2.getId(), argon2(calibrateArgon2Iterations(targetLatencyMillis)));
+        } else {
+            encoders.put(PasswordHashAlgorithm.ARGON2.getId(), argon2(MIN_ARGON2_ITERATIONS));
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm.getId(), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Each BCrypt strength step doubles the cost: one measurement at the minimum strength is enough to pick the
+     * highest strength that stays under the target.
+     */
+    public static int calibrateBCryptStrength(long targetLatencyMillis) {
+        double millis = measure(new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH));
+        int strength = MIN_BCRYPT_STRENGTH;
+        while (strength < MAX_BCRYPT_STRENGTH && millis * 2 <= targetLatencyMillis) {
+            strength++;
+            millis *= 2;
+        }
+        log.info("BCrypt strength calibrated to {} (~{} ms per hash)", strength, Math.round(millis));
+        return strength;
+    }
+
+    /**
+     * The Argon2 cost grows linearly with the number of iterations at a fixed memory size.
+     */
+    public static int calibrateArgon2Iterations(long targetLatencyMillis) {
+        double millisPerIteration = measure(argon2(MIN_ARGON2_ITERATIONS)) / MIN_ARGON2_ITERATIONS;
+        int iterations = (int) Math.floor(targetLatencyMillis / Math.max(millisPerIteration, 0.001));
+        iterations = Math.clamp(iterations, MIN_ARGON2_ITERATIONS, MAX_ARGON2_ITERATIONS);
+        log.info("Argon2 iterations calibrated to {} (~{} ms per hash)", iterations, Math.round(iterations * millisPerIteration));
+        return iterations;
+    }
+
+    public static @NotNull Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM, ARGON2_MEMORY_KIB, iterations);
+    }
+
+    private static double measure(@NotNull PasswordEncoder encoder) {
+        // the first hash pays for class loading and JIT warm-up
+        encoder.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+}
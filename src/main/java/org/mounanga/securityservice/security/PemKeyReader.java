@@ -0,0 +1,55 @@
+package org.mounanga.securityservice.security;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Reads PKCS#8 private keys ({@code BEGIN PRIVATE KEY}) and X.509 public keys ({@code BEGIN PUBLIC KEY})
+ * from PEM files.
+ */
+public class PemKeyReader {
+
+    private PemKeyReader() {
+        super();
+    }
+
+    public static @NotNull PrivateKey readPrivateKey(@NotNull Path path, @NotNull String keyAlgorithm) {
+        try {
+            byte[] der = decode(Files.readString(path), "PRIVATE KEY");
+            return KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(der));
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to read private key from " + path, e);
+        }
+    }
+
+    public static @NotNull PublicKey readPublicKey(@NotNull Path path, @NotNull String keyAlgorithm) {
+        try {
+            byte[] der = decode(Files.readString(path), "PUBLIC KEY");
+            return KeyFactory.getInstance(keyAlgorithm).generatePublic(new X509EncodedKeySpec(der));
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to read public key from " + path, e);
+        }
+    }
+
+    private static byte[] decode(@NotNull String pem, String type) {
+        String begin = "-----BEGIN " + type + "-----";
+        String end = "-----END " + type + "-----";
+        int start = pem.indexOf(begin);
+        int stop = pem.indexOf(end);
+        if (start < 0 || stop < start) {
+            throw new IllegalArgumentException("PEM content is not a " + type);
+        }
+        String body = pem.substring(start + begin.length(), stop);
+        return Base64.getMimeDecoder().decode(body);
+    }
+}
@@ -0,0 +1,34 @@
+package org.mounanga.securityservice.security;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * A rate limit written {@code capacity/seconds} in the configuration: at most {@code capacity} requests at
+ * once, refilled evenly over {@code seconds}.
+ */
+public record RateLimitPolicy(int capacity, Duration period) {
+
+    public RateLimitPolicy {
+        if (capacity <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("A rate limit needs a positive capacity and period");
+        }
+    }
+
+    public static @NotNull RateLimitPolicy parse(@NotNull String value) {
+        String[] parts = value.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit must be written capacity/seconds: " + value);
+        }
+        return new RateLimitPolicy(Integer.parseInt(parts[0].trim()), Duration.ofSeconds(Long.parseLong(parts[1].trim())));
+    }
+
+    long emissionIntervalNanos() {
+        return period.toNanos() / capacity;
+    }
+
+    long burstToleranceNanos() {
+        return period.toNanos() - emissionIntervalNanos();
+    }
+}
@@ -0,0 +1,230 @@
+package org.mounanga.securityservice.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.exception.ExceptionResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.*;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Rate limits the unauthenticated endpoints that cost a password hash or send a mail. Each endpoint has one
+ * bucket per client IP and one per account named in the request body (username for the login, email for
+ * the verifications), with its own policy.
+ */
+@Slf4j
+@Component
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/authentication/login";
+    private static final String VERIFICATION_PATH = "/verifications/";
+    private static final int MAX_BODY_SIZE = 16 * 1024;
+    private static final String RATE_LIMITED_MESSAGE = "Too many requests, please retry later";
+    private static final String BODY_TOO_LARGE_MESSAGE = "Request body too large";
+
+    private final boolean enabled;
+    private final Endpoint login;
+    private final Endpoint verification;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitingFilter(@NotNull ApplicationProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        int maxKeys = properties.getRateLimitMaxKeys();
+        this.enabled = properties.getRateLimitEnabled();
+        this.objectMapper = objectMapper;
+        this.login = new Endpoint("login", "username",
+                new TokenBucketLimiter(RateLimitPolicy.parse(properties.getRateLimitLoginIp()), maxKeys),
+                new TokenBucketLimiter(RateLimitPolicy.parse(properties.getRateLimitLoginUsername()), maxKeys),
+                meterRegistry);
+        this.verification = new Endpoint("verification", "email",
+                new TokenBucketLimiter(RateLimitPolicy.parse(properties.getRateLimitVerificationIp()), maxKeys),
+                new TokenBucketLimiter(RateLimitPolicy.parse(properties.getRateLimitVerificationEmail()), maxKeys),
+                meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+        return !enabled || !HttpMethod.POST.matches(request.getMethod()) || endpoint(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
+        Endpoint endpoint = endpoint(request);
+        long waitNanos = endpoint.ipLimiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            reject(endpoint, response, waitNanos);
+            return;
+        }
+
+        // the body is read whatever the headers say, so that a chunked body cannot skip the account limit
+        if (request.getContentLengthLong() > MAX_BODY_SIZE) {
+            rejectTooLarge(endpoint, response);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_SIZE + 1);
+        if (body.length > MAX_BODY_SIZE) {
+            rejectTooLarge(endpoint, response);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String account = account(cachedRequest.body, endpoint.accountField);
+        if (account != null) {
+            // accounts past the bound of the limiter share the overflow of their client, not of every client
+            waitNanos = endpoint.accountLimiter.tryAcquire(account, request.getRemoteAddr());
+            if (waitNanos > 0) {
+                reject(endpoint, response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    private Endpoint endpoint(@NotNull HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (LOGIN_PATH.equals(path)) {
+            return login;
+        }
+        if (path.startsWith(VERIFICATION_PATH)) {
+            return verification;
+        }
+        return null;
+    }
+
+    private String account(byte[] body, String field) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode value = objectMapper.readTree(body).get(field);
+            return value == null || !value.isTextual() ? null : value.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            // malformed bodies are rejected by the controller, only the IP limit applies to them
+            return null;
+        }
+    }
+
+    private void reject(@NotNull Endpoint endpoint, @NotNull HttpServletResponse response, long waitNanos) throws IOException {
+        endpoint.rejections.increment();
+        long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.warn("Rate limit reached on {} endpoint", endpoint.name);
+        response.setStatus(TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ExceptionResponse(TOO_MANY_REQUESTS.value(), RATE_LIMITED_MESSAGE, List.of()));
+    }
+
+    private void rejectTooLarge(@NotNull Endpoint endpoint, @NotNull HttpServletResponse response) throws IOException {
+        log.warn("Request body over {} bytes on {} endpoint", MAX_BODY_SIZE, endpoint.name);
+        response.setStatus(PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ExceptionResponse(PAYLOAD_TOO_LARGE.value(), BODY_TOO_LARGE_MESSAGE, List.of()));
+    }
+
+    private static final class Endpoint {
+
+        private final String name;
+        private final String accountField;
+        private final TokenBucketLimiter ipLimiter;
+        private final TokenBucketLimiter accountLimiter;
+        private final Counter rejections;
+
+        private Endpoint(String name, String accountField, TokenBucketLimiter ipLimiter, TokenBucketLimiter accountLimiter, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.accountField = accountField;
+            this.ipLimiter = ipLimiter;
+            this.accountLimiter = accountLimiter;
+            this.rejections = Counter.builder("security.rate-limit.rejections").tag("endpoint", name).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Replays the body read by the filter, so that it can be inspected here and still be read by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(@NotNull HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // the whole body is already in memory: it is available at once, then all read
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    return input.read(bytes, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() == null ? "UTF-8" : getCharacterEncoding();
+            try {
+                return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
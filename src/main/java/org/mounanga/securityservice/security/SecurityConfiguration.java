@@ -18,10 +18,12 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 public class SecurityConfiguration {
 
     private final JWTAuthorizationFilter jwtAuthorizationFilter;
+    private final RateLimitingFilter rateLimitingFilter;
     private final AuthenticationProvider authenticationProvider;
 
-    public SecurityConfiguration(JWTAuthorizationFilter jwtAuthorizationFilter, AuthenticationProvider authenticationProvider) {
+    public SecurityConfiguration(JWTAuthorizationFilter jwtAuthorizationFilter, RateLimitingFilter rateLimitingFilter, AuthenticationProvider authenticationProvider) {
         this.jwtAuthorizationFilter = jwtAuthorizationFilter;
+        this.rateLimitingFilter = rateLimitingFilter;
         this.authenticationProvider = authenticationProvider;
     }
 
@@ -29,10 +31,11 @@ public class SecurityConfiguration {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(requests -> requests
-                        .requestMatchers("/authentication/**", "/verifications/**").permitAll()
+                        .requestMatchers("/authentication/**", "/verifications/**", "/.well-known/**").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(STATELESS))
                 .authenticationProvider(authenticationProvider)
+                .addFilterBefore(rateLimitingFilter, BasicAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthorizationFilter, BasicAuthenticationFilter.class);
         return http.build();
     }
@@ -0,0 +1,195 @@
+package org.mounanga.securityservice.security;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.enums.SigningAlgorithm;
+
+import java.math.BigInteger;
+import java.security.*;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Immutable set of keys used to sign and verify tokens: one active signing key (identified by its {@code kid})
+ * and every public key still accepted for verification while keys are being rotated.
+ */
+public final class SigningKeys {
+
+    private final SigningAlgorithm signingAlgorithm;
+    private final String activeKeyId;
+    private final Algorithm algorithm;
+    private final Map<String, PublicKey> verificationKeys;
+    private final byte[] secret;
+
+    private SigningKeys(SigningAlgorithm signingAlgorithm, String activeKeyId, Algorithm algorithm, Map<String, PublicKey> verificationKeys, byte[] secret) {
+        this.signingAlgorithm = signingAlgorithm;
+        this.activeKeyId = activeKeyId;
+        this.algorithm = algorithm;
+        this.verificationKeys = verificationKeys;
+        this.secret = secret;
+    }
+
+    public static @NotNull SigningKeys hmac(@NotNull String secret) {
+        return new SigningKeys(SigningAlgorithm.HS256, null, Algorithm.HMAC256(secret), Map.of(), secret.getBytes(UTF_8));
+    }
+
+    /**
+     * @param algorithm      RS256 or ES256
+     * @param activeKeyPair  the key pair used to sign new tokens
+     * @param previousKeys   public keys of retired key pairs, still accepted until the tokens they signed expire
+     */
+    public static @NotNull SigningKeys asymmetric(@NotNull SigningAlgorithm algorithm, @NotNull KeyPair activeKeyPair, @NotNull List<PublicKey> previousKeys) {
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        String activeKeyId = keyId(activeKeyPair.getPublic());
+        keys.put(activeKeyId, activeKeyPair.getPublic());
+        previousKeys.forEach(key -> keys.put(keyId(key), key));
+        Map<String, PublicKey> verificationKeys = Collections.unmodifiableMap(keys);
+        PrivateKey privateKey = activeKeyPair.getPrivate();
+
+        Algorithm instance = switch (algorithm) {
+            case RS256 -> Algorithm.RSA256(new RSAKeyProvider() {
+                @Override
+                public RSAPublicKey getPublicKeyById(String keyId) {
+                    return (RSAPublicKey) verificationKeys.get(keyId == null ? activeKeyId : keyId);
+                }
+
+                @Override
+                public RSAPrivateKey getPrivateKey() {
+                    return (RSAPrivateKey) privateKey;
+                }
+
+                @Override
+                public String getPrivateKeyId() {
+                    return activeKeyId;
+                }
+            });
+            case ES256 -> Algorithm.ECDSA256(new ECDSAKeyProvider() {
+                @Override
+                public ECPublicKey getPublicKeyById(String keyId) {
+                    return (ECPublicKey) verificationKeys.get(keyId == null ? activeKeyId : keyId);
+                }
+
+                @Override
+                public ECPrivateKey getPrivateKey() {
+                    return (ECPrivateKey) privateKey;
+                }
+
+                @Override
+                public String getPrivateKeyId() {
+                    return activeKeyId;
+                }
+            });
+            case HS256 -> throw new IllegalArgumentException("HS256 is not an asymmetric algorithm");
+        };
+        return new SigningKeys(algorithm, activeKeyId, instance, verificationKeys, null);
+    }
+
+    /**
+     * Generates a fresh key pair for the given algorithm, without any network access. Meant for tests and for
+     * development environments where no key has been configured.
+     */
+    public static @NotNull KeyPair generateKeyPair(@NotNull SigningAlgorithm algorithm) {
+        try {
+            return switch (algorithm) {
+                case RS256 -> {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                    generator.initialize(2048);
+                    yield generator.generateKeyPair();
+                }
+                case ES256 -> {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                    generator.initialize(new ECGenParameterSpec("secp256r1"));
+                    yield generator.generateKeyPair();
+                }
+                case HS256 -> throw new IllegalArgumentException("HS256 does not use key pairs");
+            };
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate a " + algorithm + " key pair", e);
+        }
+    }
+
+    public SigningAlgorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * The same {@link Algorithm} signs with the active private key and verifies with the public key named by
+     * the {@code kid} header of the token.
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return a signer bound to the active key: the allocation-light HS256 engine for the shared secret,
+     * java-jwt for the asymmetric algorithms
+     */
+    JwtSigner newSigner() {
+        if (signingAlgorithm == SigningAlgorithm.HS256) {
+            return new HmacJwtSigner(secret);
+        }
+        return new Auth0JwtSigner(algorithm);
+    }
+
+    /**
+     * @return the public keys in JSON Web Key format, empty for the shared-secret algorithm
+     */
+    public List<Map<String, Object>> toJwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        verificationKeys.forEach((keyId, key) -> jwks.add(toJwk(keyId, key)));
+        return jwks;
+    }
+
+    private @NotNull Map<String, Object> toJwk(String keyId, PublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        if (key instanceof RSAPublicKey rsaKey) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", encoder.encodeToString(unsigned(rsaKey.getModulus(), 0)));
+            jwk.put("e", encoder.encodeToString(unsigned(rsaKey.getPublicExponent(), 0)));
+        } else if (key instanceof ECPublicKey ecKey) {
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", encoder.encodeToString(unsigned(ecKey.getW().getAffineX(), 32)));
+            jwk.put("y", encoder.encodeToString(unsigned(ecKey.getW().getAffineY(), 32)));
+        }
+        jwk.put("use", "sig");
+        jwk.put("alg", signingAlgorithm.name());
+        jwk.put("kid", keyId);
+        return jwk;
+    }
+
+    static @NotNull String keyId(@NotNull PublicKey key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] unsigned(@NotNull BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length >= length) {
+            return bytes;
+        }
+        byte[] padded = new byte[length];
+        System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+        return padded;
+    }
+}
@@ -0,0 +1,118 @@
+package org.mounanga.securityservice.security;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets using the generic cell rate algorithm: a bucket is a single {@link AtomicLong}
+ * holding the theoretical arrival time of the next request, updated with a CAS. A bucket whose arrival time
+ * is in the past is full, so it can be dropped without changing any decision: idle buckets are evicted when
+ * the number of keys reaches its bound, at most once per emission interval so that a saturated map is not
+ * scanned on every request. If every bucket is still in use, new keys fall into one of
+ * {@value #OVERFLOW_SHARDS} overflow buckets picked by their overflow key instead of growing the map: with the
+ * client address as overflow key, a client making up keys to fill the map only drains its own share.
+ */
+public class TokenBucketLimiter {
+
+    static final int OVERFLOW_SHARDS = 64;
+
+    private final RateLimitPolicy policy;
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong[] overflowBuckets = new AtomicLong[OVERFLOW_SHARDS];
+    private final AtomicLong nextEviction = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucketLimiter(@NotNull RateLimitPolicy policy, int maxKeys) {
+        this(policy, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketLimiter(@NotNull RateLimitPolicy policy, int maxKeys, @NotNull LongSupplier nanoClock) {
+        this.policy = policy;
+        this.emissionInterval = policy.emissionIntervalNanos();
+        this.burstTolerance = policy.burstToleranceNanos();
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < OVERFLOW_SHARDS; i++) {
+            overflowBuckets[i] = new AtomicLong(Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Takes one token from the bucket of the key.
+     *
+     * @return 0 when the request is allowed, otherwise the number of nanoseconds until a token is available
+     */
+    public long tryAcquire(@NotNull String key) {
+        return tryAcquire(key, key);
+    }
+
+    /**
+     * Takes one token from the bucket of the key, or from the overflow bucket of the overflow key when the key
+     * cannot get a bucket of its own.
+     *
+     * @return 0 when the request is allowed, otherwise the number of nanoseconds until a token is available
+     */
+    public long tryAcquire(@NotNull String key, @NotNull String overflowKey) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucket(key, overflowKey, now);
+        while (true) {
+            long arrival = bucket.get();
+            long theoretical = arrival == Long.MIN_VALUE ? now : Math.max(arrival, now);
+            long allowAt = theoretical - burstTolerance;
+            if (now < allowAt) {
+                return allowAt - now;
+            }
+            if (bucket.compareAndSet(arrival, theoretical + emissionInterval)) {
+                return 0L;
+            }
+        }
+    }
+
+    public RateLimitPolicy getPolicy() {
+        return policy;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String key, String overflowKey, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            evictIdle(now);
+            if (buckets.size() >= maxKeys) {
+                int hash = overflowKey.hashCode();
+                return overflowBuckets[Math.floorMod(hash ^ (hash >>> 16), OVERFLOW_SHARDS)];
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    private void evictIdle(long now) {
+        // a bucket used right after a scan is idle again one emission interval later: scanning more often than
+        // that finds little, and only one thread scans
+        long next = nextEviction.get();
+        if (now < next || !nextEviction.compareAndSet(next, now + emissionInterval)) {
+            return;
+        }
+        Iterator<AtomicLong> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            long arrival = iterator.next().get();
+            // a request racing with the removal may lose its token: at worst one extra request is allowed
+            if (arrival == Long.MIN_VALUE || arrival <= now) {
+                iterator.remove();
+            }
+        }
+    }
+}
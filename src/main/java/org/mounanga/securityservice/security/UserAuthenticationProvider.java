@@ -0,0 +1,84 @@
+package org.mounanga.securityservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Checks the credentials against the user loaded in a single query and returns an authentication whose
+ * principal is the {@link UserPrincipal}, so the rest of the login reuses the loaded user. A stored hash that
+ * is weaker than the current password policy is replaced once the password has been verified.
+ * The enabled flag is deliberately left to {@link org.mounanga.securityservice.service.AuthenticationService}:
+ * it is only reported once the password has been verified.
+ */
+@Slf4j
+public class UserAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private volatile String userNotFoundEncodedPassword;
+
+    public UserAuthenticationProvider(UserDetailsServiceImpl userDetailsService, PasswordEncoder passwordEncoder, UserDetailsPasswordService userDetailsPasswordService) {
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+    }
+
+    @Override
+    public Authentication authenticate(@NotNull Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String password = authentication.getCredentials() == null ? "" : authentication.getCredentials().toString();
+
+        UserPrincipal principal;
+        try {
+            principal = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            // hash anyway so that unknown usernames cannot be told apart by response time
+            passwordEncoder.matches(password, userNotFoundEncodedPassword());
+            log.error("Authentication failed for user: {}", username);
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        if (!passwordEncoder.matches(password, principal.getPassword())) {
+            log.error("Authentication failed for user: {}", username);
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (passwordEncoder.upgradeEncoding(principal.getPassword())) {
+            upgradePassword(principal, password);
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private void upgradePassword(UserPrincipal principal, String password) {
+        try {
+            userDetailsPasswordService.updatePassword(principal, passwordEncoder.encode(password));
+        } catch (RuntimeException e) {
+            // the login itself succeeded: the upgrade is retried on the next one
+            log.warn("Unable to upgrade the password hash of user {}: {}", principal.getUsername(), e.getMessage());
+        }
+    }
+
+    private String userNotFoundEncodedPassword() {
+        String encoded = userNotFoundEncodedPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode(USER_NOT_FOUND_PASSWORD);
+            userNotFoundEncodedPassword = encoded;
+        }
+        return encoded;
+    }
+}
@@ -2,22 +2,20 @@ package org.mounanga.securityservice.security;
 
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
-import org.mounanga.securityservice.entity.Role;
 import org.mounanga.securityservice.entity.User;
 import org.mounanga.securityservice.repository.UserRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -25,27 +23,37 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         this.userRepository = userRepository;
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
         log.info("In loadUserByUsername()");
         User user = findUserByUsername(username);
-        List<GrantedAuthority> grantedAuthorities = getAuthorities(user.getRoles());
         log.info("user loaded successfully");
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(), user.getPassword(), grantedAuthorities
-        );
+        return new UserPrincipal(user);
     }
 
-    private User findUserByUsername(final String username) {
-        return userRepository.findByUsername(username)
-                .or(() -> userRepository.findByEmail(username))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + username));
+    /**
+     * Stores a hash produced with the current password policy in place of a weaker one.
+     */
+    @Transactional
+    @Override
+    public UserDetails updatePassword(@NotNull UserDetails userDetails, String newPassword) {
+        log.info("In updatePassword()");
+        UserPrincipal principal = (UserPrincipal) userDetails;
+        userRepository.updatePassword(principal.getUser().getId(), newPassword);
+        principal.getUser().setPassword(newPassword);
+        log.info("password hash upgraded");
+        return principal;
     }
 
-    private @NotNull List<GrantedAuthority> getAuthorities(final @NotNull List<Role> roles) {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-        roles.forEach(role -> authorities.add(new SimpleGrantedAuthority(role.getName())));
-        return authorities;
+    private @NotNull User findUserByUsername(final String username) {
+        List<User> users = userRepository.findByUsernameOrEmail(username);
+        // a username matching someone else's email must not shadow the user who owns that username
+        return users.stream()
+                .filter(user -> username.equals(user.getUsername()))
+                .findFirst()
+                .or(() -> users.stream().findFirst())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + username));
     }
 
 }
@@ -0,0 +1,56 @@
+package org.mounanga.securityservice.security;
+
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal carrying the {@link User} loaded at login (roles and profile included), so that the
+ * token can be minted without reading the user a second time.
+ */
+public class UserPrincipal implements UserDetails {
+
+    private final User user;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(@NotNull User user) {
+        this.user = user;
+        this.authorities = user.getRoles().stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.getName()))
+                .toList();
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return user.getPassword();
+    }
+
+    @Override
+    public String getUsername() {
+        return user.getUsername();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return user.isEnabled();
+    }
+
+    @Override
+    public String toString() {
+        return user.getUsername();
+    }
+}
@@ -0,0 +1,123 @@
+package org.mounanga.securityservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.util.ObjectPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the verification codes from one shared, seeded-once DRBG. Random bytes are drawn in bulk into a
+ * buffer reused from an {@link ObjectPool}, so the bytes left over are kept for the next codes, and mapped onto
+ * the alphabet by rejection sampling, so every symbol is exactly as likely as any other. A pool of codes
+ * generated ahead of time absorbs bursts of reset requests.
+ */
+@Slf4j
+@Component
+public class VerificationCodeGenerator {
+
+    private static final int BUFFER_SIZE = 256;
+
+    private final SecureRandom random;
+    private final char[] alphabet;
+    private final int length;
+    private final int acceptBelow;
+    private final int poolSize;
+    private final Queue<String> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final ObjectPool<RandomBuffer> buffers = new ObjectPool<>(RandomBuffer::new);
+
+    @Autowired
+    public VerificationCodeGenerator(@NotNull ApplicationProperties properties) {
+        this(properties.getVerificationCodeLength(), properties.getVerificationCodeAlphabet(), properties.getVerificationCodePoolSize(), newRandom());
+    }
+
+    public VerificationCodeGenerator(int length, @NotNull String alphabet, int poolSize, @NotNull SecureRandom random) {
+        if (length < 1) {
+            throw new IllegalArgumentException("The code length must be positive");
+        }
+        if (alphabet.length() < 2 || alphabet.length() > 256 || alphabet.chars().distinct().count() != alphabet.length()) {
+            throw new IllegalArgumentException("The code alphabet needs between 2 and 256 distinct characters");
+        }
+        this.length = length;
+        this.alphabet = alphabet.toCharArray();
+        // the largest multiple of the alphabet size a byte can hold: bytes above it would favour the first symbols
+        this.acceptBelow = 256 - 256 % this.alphabet.length;
+        this.poolSize = poolSize;
+        this.random = random;
+        refill();
+    }
+
+    /**
+     * @return a code from the pool, or a freshly generated one when the pool is empty
+     */
+    public @NotNull String next() {
+        String code = pool.poll();
+        if (code == null) {
+            return generate();
+        }
+        pooled.decrementAndGet();
+        return code;
+    }
+
+    public @NotNull String generate() {
+        RandomBuffer bytes = buffers.acquire();
+        try {
+            char[] code = new char[length];
+            int i = 0;
+            while (i < length) {
+                int value = bytes.next();
+                if (value < acceptBelow) {
+                    code[i++] = alphabet[value % alphabet.length];
+                }
+            }
+            return new String(code);
+        } finally {
+            buffers.release(bytes);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void refill() {
+        while (pooled.get() < poolSize) {
+            pool.offer(generate());
+            pooled.incrementAndGet();
+        }
+    }
+
+    public int pooledCount() {
+        return pooled.get();
+    }
+
+    private static @NotNull SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG", DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        } catch (NoSuchAlgorithmException e) {
+            log.warn("DRBG is not available, falling back to the default SecureRandom");
+            return new SecureRandom();
+        }
+    }
+
+    private final class RandomBuffer {
+
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private int position = BUFFER_SIZE;
+
+        int next() {
+            if (position == BUFFER_SIZE) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            return bytes[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.mounanga.securityservice.security;
+
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.util.ObjectPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keyed hash (HMAC-SHA256) of the verification codes: only the hash is stored, and without the key a leaked
+ * table does not allow the codes to be recovered by enumerating the small code space.
+ */
+@Component
+public class VerificationCodeHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ObjectPool<Mac> macs;
+
+    @Autowired
+    public VerificationCodeHasher(@NotNull ApplicationProperties properties) {
+        this(properties.getVerificationCodeKey());
+    }
+
+    public VerificationCodeHasher(@NotNull String key) {
+        Mac prototype;
+        try {
+            prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(new SecretKeySpec(key.getBytes(UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+        // a keyed clone is far cheaper than a new instance to look up and key
+        this.macs = new ObjectPool<>(() -> {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("HmacSHA256 cannot be cloned", e);
+            }
+        });
+    }
+
+    /**
+     * @return the 64 hex characters of the keyed hash of the code
+     */
+    public @NotNull String hash(@NotNull String code) {
+        Mac mac = macs.acquire();
+        try {
+            return HexFormat.of().formatHex(mac.doFinal(code.getBytes(UTF_8)));
+        } finally {
+            macs.release(mac);
+        }
+    }
+}
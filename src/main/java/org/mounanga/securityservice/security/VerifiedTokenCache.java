@@ -0,0 +1,164 @@
+package org.mounanga.securityservice.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.util.ObjectPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Bounded cache of already verified (or rejected) bearer tokens, keyed by the SHA-256 digest of the token.
+ * Verified entries never outlive the {@code exp} claim of their token, rejected entries are kept for a short
+ * time only so that floods of bad tokens are turned away without recomputing the signature.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ObjectPool<MessageDigest> DIGESTS = new ObjectPool<>(VerifiedTokenCache::sha256);
+
+    private final Map<String, CachedToken> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final int maxSize;
+    private final long rejectedTtl;
+
+    @Autowired
+    public VerifiedTokenCache(@NotNull ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getJwtCacheMaxSize(), properties.getJwtCacheRejectedTtl(), meterRegistry);
+    }
+
+    public VerifiedTokenCache(int maxSize, long rejectedTtl, @NotNull MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.rejectedTtl = rejectedTtl;
+        FunctionCounter.builder("security.jwt.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("security.jwt.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("security.jwt.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("security.jwt.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public String key(@NotNull String jwt) {
+        MessageDigest digest = DIGESTS.acquire();
+        byte[] hash;
+        try {
+            hash = digest.digest(jwt.getBytes(US_ASCII));
+        } finally {
+            DIGESTS.release(digest);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    public CachedToken get(String key) {
+        CachedToken token = entries.get(key);
+        if (token == null) {
+            misses.increment();
+            return null;
+        }
+        if (token.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(key, token)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return token;
+    }
+
+    public void putVerified(String key, UsernamePasswordAuthenticationToken authentication, Instant expiresAt) {
+        if (expiresAt == null) {
+            return;
+        }
+        put(key, new CachedToken(authentication, expiresAt.toEpochMilli()));
+    }
+
+    public void putRejected(String key) {
+        put(key, new CachedToken(null, System.currentTimeMillis() + rejectedTtl));
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void put(String key, CachedToken token) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, token);
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<CachedToken> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isExpired(now)) {
+                    iterator.remove();
+                    evictions.increment();
+                }
+            }
+            // still full once expired entries are gone: drop roughly a tenth of the entries to make room
+            int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+            iterator = entries.values().iterator();
+            while (toRemove > 0 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+                toRemove--;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record CachedToken(UsernamePasswordAuthenticationToken authentication, long expiresAt) {
+
+        public boolean isRejected() {
+            return authentication == null;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.mounanga.securityservice.service;
 
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
 import org.mounanga.securityservice.dto.RoleRequestDTO;
 import org.mounanga.securityservice.dto.RoleResponseDTO;
 
@@ -11,6 +12,8 @@ public interface RoleService {
     List<RoleResponseDTO> findAllRoles();
     List<RoleResponseDTO> findAllRoles(int page, int size);
     List<RoleResponseDTO> searchAllRoles(String keyword, int page, int size);
+    CursorPageResponseDTO<RoleResponseDTO> findAllRoles(String after, int size);
+    CursorPageResponseDTO<RoleResponseDTO> searchAllRoles(String keyword, String after, int size);
 
     void deleteRoleById(Long id);
     RoleResponseDTO saveRole(RoleRequestDTO role);
@@ -19,4 +19,6 @@ public interface UserService {
     List<UserResponseDTO> getUsers(int page, int size);
     List<UserResponseDTO> getUsers();
     List<UserResponseDTO> searchUsers(String keyword, int page, int size);
+    CursorPageResponseDTO<UserResponseDTO> getUsers(String after, int size);
+    CursorPageResponseDTO<UserResponseDTO> searchUsers(String keyword, String after, int size);
 }
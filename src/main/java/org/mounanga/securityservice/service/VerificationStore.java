@@ -0,0 +1,34 @@
+package org.mounanga.securityservice.service;
+
+import org.mounanga.securityservice.entity.Verification;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Storage of the outstanding verification codes, selected with {@code application.verification.store.type}:
+ * {@code jpa} (the verification table) or {@code memory} (in-process, expired by a timing wheel).
+ */
+public interface VerificationStore {
+
+    void save(Verification verification);
+    Optional<Verification> find(String email, String codeHash);
+
+    /**
+     * Counts one attempt against the verifications of the email still under {@code maxAttempts}, checking and
+     * counting in one step so that parallel guesses cannot all pass the limit.
+     *
+     * @return false when the email has no verification left under the limit
+     */
+    boolean tryAttempt(String email, int maxAttempts);
+
+    boolean isLocked(String email, int maxAttempts);
+    void delete(Verification verification);
+
+    /**
+     * Removes at most {@code limit} verifications expired before {@code now}.
+     *
+     * @return the number of verifications removed; stores that expire entries on their own return 0
+     */
+    int deleteExpired(LocalDateTime now, int limit);
+}
@@ -5,13 +5,13 @@ import org.jetbrains.annotations.NotNull;
 import org.mounanga.securityservice.configuration.ApplicationProperties;
 import org.mounanga.securityservice.dto.LoginRequestDTO;
 import org.mounanga.securityservice.dto.LoginResponseDTO;
-import org.mounanga.securityservice.dto.MailDTO;
 import org.mounanga.securityservice.entity.User;
 import org.mounanga.securityservice.exception.UserNotAuthenticatedException;
 import org.mounanga.securityservice.exception.UserNotEnabledException;
 import org.mounanga.securityservice.exception.UserNotFoundException;
 import org.mounanga.securityservice.repository.UserRepository;
 import org.mounanga.securityservice.security.JwtService;
+import org.mounanga.securityservice.security.UserPrincipal;
 import org.mounanga.securityservice.service.AuthenticationService;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -19,8 +19,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-
 @Slf4j
 @Service
 public class AuthenticationServiceImpl implements AuthenticationService {
@@ -29,14 +27,14 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final UserRepository userRepository;
     private final ApplicationProperties properties;
     private final JwtService jwtService;
-    private final MailingService mailingService;
+    private final LoginNotificationAggregator loginNotificationAggregator;
 
-    public AuthenticationServiceImpl(AuthenticationManager authenticationManager, UserRepository userRepository, ApplicationProperties properties, JwtService jwtService, MailingService mailingService) {
+    public AuthenticationServiceImpl(AuthenticationManager authenticationManager, UserRepository userRepository, ApplicationProperties properties, JwtService jwtService, LoginNotificationAggregator loginNotificationAggregator) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.properties = properties;
         this.jwtService = jwtService;
-        this.mailingService = mailingService;
+        this.loginNotificationAggregator = loginNotificationAggregator;
     }
 
     @Override
@@ -47,13 +45,13 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         Authentication authenticationResponse = authenticationManager.authenticate(authenticationRequest);
 
         if(authenticationResponse.isAuthenticated()) {
-            User user = findUserByUsername(request.username());
+            User user = getAuthenticatedUser(authenticationResponse, request.username());
             if(!user.isEnabled()){
                 throw new UserNotEnabledException(String.format("User %s is not enabled", request.username()));
             }
             log.info("Authentication successful");
-            sendNotification(user, LocalDateTime.now());
-            String jwt = jwtService.generateToken(user, properties.getJwtSecret(), properties.getJwtExpiration());
+            loginNotificationAggregator.notifyLogin(user);
+            String jwt = jwtService.generateToken(user, properties.getJwtExpiration());
             return new LoginResponseDTO(jwt, user.getPasswordMustBeModified());
         }else{
             log.error("Authentication failed for user: {}", request.username());
@@ -61,10 +59,11 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         }
     }
 
-    private void sendNotification(@NotNull User user, @NotNull LocalDateTime now) {
-        String body = String.format("Hello %s . You have just contacted yourself. If you are not the originator of this manipulation: please change your password immediately and/or contact an administrator at %s", user.getUsername(), now.toString());
-        MailDTO mail = new MailDTO(user.getEmail(), "Connection notification",body);
-        mailingService.send(mail);
+    private User getAuthenticatedUser(@NotNull Authentication authentication, String username) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUser();
+        }
+        return findUserByUsername(username);
     }
 
     private User findUserByUsername(String username) {
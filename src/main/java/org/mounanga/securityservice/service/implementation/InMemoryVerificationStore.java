@@ -0,0 +1,243 @@
+package org.mounanga.securityservice.service.implementation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.entity.Verification;
+import org.mounanga.securityservice.service.VerificationStore;
+import org.mounanga.securityservice.util.HierarchicalTimingWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the outstanding verifications in memory, keyed by email, and expires them with a hierarchical timing
+ * wheel ticking every second: no table churn and no scan of the entries to find the expired ones. With a
+ * journal file configured, every change is appended to it and replayed at startup.
+ * <p>
+ * The entries live on the node that issued the code, so this store only fits a single instance: behind a load
+ * balancer a code requested on one node is unknown to the others and the failed attempts are counted per node.
+ * Changes are not part of the surrounding transaction either and are not undone by a rollback.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "application.verification.store.type", havingValue = "memory")
+public class InMemoryVerificationStore implements VerificationStore {
+
+    private static final long TICK_MILLIS = 1000L;
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, List<Entry>> entriesByEmail = new HashMap<>();
+    private final HierarchicalTimingWheel<Entry> wheel;
+    private final Clock clock;
+    private final VerificationJournal journal;
+    private int size;
+
+    @Autowired
+    public InMemoryVerificationStore(@NotNull ApplicationProperties properties) {
+        this(properties.getVerificationStoreJournal(), Clock.systemDefaultZone());
+    }
+
+    public InMemoryVerificationStore(String journalPath, @NotNull Clock clock) {
+        this.clock = clock;
+        this.wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, WHEEL_LEVELS, clock.millis());
+        if (journalPath == null || journalPath.isBlank()) {
+            this.journal = null;
+            return;
+        }
+        this.journal = new VerificationJournal(Path.of(journalPath), this::expiresAt);
+        long now = clock.millis();
+        journal.replay(this::fromEpochMillis).stream()
+                .filter(verification -> expiresAt(verification) > now)
+                .forEach(this::add);
+        journal.snapshot(liveVerifications());
+        log.info("{} outstanding verifications restored from {}", size, journalPath);
+    }
+
+    @Override
+    public void save(@NotNull Verification verification) {
+        lock.lock();
+        try {
+            if (verification.getId() == null) {
+                verification.setId(UUID.randomUUID().toString());
+            }
+            add(verification);
+            if (journal != null) {
+                journal.put(verification);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Verification> find(String email, String codeHash) {
+        lock.lock();
+        try {
+            return entriesByEmail.getOrDefault(email, List.of()).stream()
+                    .map(entry -> entry.verification)
+                    .filter(verification -> verification.getCodeHash().equals(codeHash))
+                    .findFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryAttempt(String email, int maxAttempts) {
+        lock.lock();
+        try {
+            boolean counted = false;
+            for (Entry entry : entriesByEmail.getOrDefault(email, List.of())) {
+                if (entry.verification.getAttempts() < maxAttempts) {
+                    entry.verification.setAttempts(entry.verification.getAttempts() + 1);
+                    counted = true;
+                }
+            }
+            if (counted && journal != null) {
+                // replayed on every verification of the email: those already at the limit stay locked anyway
+                journal.attempt(email);
+            }
+            return counted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isLocked(String email, int maxAttempts) {
+        lock.lock();
+        try {
+            return entriesByEmail.getOrDefault(email, List.of()).stream()
+                    .anyMatch(entry -> entry.verification.getAttempts() >= maxAttempts);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(@NotNull Verification verification) {
+        lock.lock();
+        try {
+            List<Entry> entries = entriesByEmail.get(verification.getEmail());
+            if (entries == null) {
+                return;
+            }
+            for (Iterator<Entry> iterator = entries.iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (entry.verification.getId().equals(verification.getId())) {
+                    entry.timeout.cancel();
+                    iterator.remove();
+                    size--;
+                }
+            }
+            if (entries.isEmpty()) {
+                entriesByEmail.remove(verification.getEmail());
+            }
+            if (journal != null) {
+                journal.delete(verification);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Expired entries are removed by the timing wheel.
+     */
+    @Override
+    public int deleteExpired(LocalDateTime now, int limit) {
+        return 0;
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void expire() {
+        lock.lock();
+        try {
+            wheel.advance(clock.millis(), this::remove);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void add(@NotNull Verification verification) {
+        Entry entry = new Entry(verification);
+        entry.timeout = wheel.schedule(entry, expiresAt(verification));
+        entriesByEmail.computeIfAbsent(verification.getEmail(), email -> new ArrayList<>(1)).add(entry);
+        size++;
+    }
+
+    private void remove(@NotNull Entry entry) {
+        String email = entry.verification.getEmail();
+        List<Entry> entries = entriesByEmail.get(email);
+        if (entries != null && entries.remove(entry)) {
+            size--;
+            if (entries.isEmpty()) {
+                entriesByEmail.remove(email);
+            }
+            if (journal != null) {
+                journal.delete(entry.verification);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (journal.needsCompaction(size)) {
+            journal.snapshot(liveVerifications());
+        }
+    }
+
+    private @NotNull List<Verification> liveVerifications() {
+        return entriesByEmail.values().stream()
+                .flatMap(List::stream)
+                .map(entry -> entry.verification)
+                .toList();
+    }
+
+    private long expiresAt(@NotNull Verification verification) {
+        return verification.getExpires().atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), clock.getZone());
+    }
+
+    private static final class Entry {
+
+        private final Verification verification;
+        private HierarchicalTimingWheel<Entry>.Timeout timeout;
+
+        private Entry(Verification verification) {
+            this.verification = verification;
+        }
+    }
+}
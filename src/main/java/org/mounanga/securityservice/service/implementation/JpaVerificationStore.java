@@ -0,0 +1,53 @@
+package org.mounanga.securityservice.service.implementation;
+
+import org.mounanga.securityservice.entity.Verification;
+import org.mounanga.securityservice.repository.VerificationRepository;
+import org.mounanga.securityservice.service.VerificationStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+@ConditionalOnProperty(name = "application.verification.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaVerificationStore implements VerificationStore {
+
+    private final VerificationRepository verificationRepository;
+
+    public JpaVerificationStore(VerificationRepository verificationRepository) {
+        this.verificationRepository = verificationRepository;
+    }
+
+    @Override
+    public void save(Verification verification) {
+        verificationRepository.save(verification);
+    }
+
+    @Override
+    public Optional<Verification> find(String email, String codeHash) {
+        return verificationRepository.findFirstByEmailAndCodeHash(email, codeHash);
+    }
+
+    @Override
+    public boolean tryAttempt(String email, int maxAttempts) {
+        return verificationRepository.incrementAttemptsBelow(email, maxAttempts) > 0;
+    }
+
+    @Override
+    public boolean isLocked(String email, int maxAttempts) {
+        return verificationRepository.existsLockedByEmail(email, maxAttempts);
+    }
+
+    @Override
+    public void delete(Verification verification) {
+        verificationRepository.delete(verification);
+    }
+
+    @Transactional
+    @Override
+    public int deleteExpired(LocalDateTime now, int limit) {
+        return verificationRepository.deleteExpired(now, limit);
+    }
+}
@@ -0,0 +1,207 @@
+package org.mounanga.securityservice.service.implementation;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.dto.MailDTO;
+import org.mounanga.securityservice.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses the login notifications of a user into one digest per window instead of one mail per login.
+ * A login from a client (IP address and user agent) not seen recently for that user is still notified
+ * immediately. Memory is bounded: past the configured number of users, logins are notified immediately
+ * rather than buffered, and clients not seen for a while are forgotten. Pending digests are sent on shutdown.
+ */
+@Slf4j
+@Service
+public class LoginNotificationAggregator {
+
+    private static final int MAX_CLIENTS_PER_USER = 5;
+    private static final int MAX_CLIENT_LENGTH = 256;
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    private final MailingService mailingService;
+    private final Clock clock;
+    private final long windowMillis;
+    private final long knownClientTtlMillis;
+    private final int maxUsers;
+    private final int maxListedLogins;
+    private final boolean immediateOnNewClient;
+    private final Map<String, PendingDigest> pendingDigests = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> knownClients = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LoginNotificationAggregator(MailingService mailingService, @NotNull ApplicationProperties properties) {
+        this(mailingService, properties, Clock.systemDefaultZone());
+    }
+
+    public LoginNotificationAggregator(MailingService mailingService, @NotNull ApplicationProperties properties, Clock clock) {
+        this.mailingService = mailingService;
+        this.clock = clock;
+        this.windowMillis = properties.getLoginNotificationWindow();
+        this.knownClientTtlMillis = properties.getLoginNotificationKnownClientTtl();
+        this.maxUsers = properties.getLoginNotificationMaxUsers();
+        this.maxListedLogins = properties.getLoginNotificationMaxListedLogins();
+        this.immediateOnNewClient = properties.getLoginNotificationImmediateOnNewClient();
+    }
+
+    /**
+     * Records a successful login made by the client of the current HTTP request.
+     */
+    public void notifyLogin(@NotNull User user) {
+        notifyLogin(user, currentClient());
+    }
+
+    public void notifyLogin(@NotNull User user, @NotNull String client) {
+        log.info("In notifyLogin()");
+        LocalDateTime loginTime = LocalDateTime.now(clock);
+        boolean newClient = rememberClient(user.getUsername(), client);
+        if (newClient && immediateOnNewClient) {
+            log.info("Login from a new client, notifying immediately");
+            mailingService.send(singleLoginMail(user, loginTime));
+            return;
+        }
+        if (!pendingDigests.containsKey(user.getUsername()) && pendingDigests.size() >= maxUsers) {
+            log.warn("Login notification buffer is full, notifying immediately");
+            mailingService.send(singleLoginMail(user, loginTime));
+            return;
+        }
+        long flushAt = clock.millis() + windowMillis;
+        pendingDigests.compute(user.getUsername(), (username, digest) -> {
+            PendingDigest pending = digest == null ? new PendingDigest(user.getUsername(), user.getEmail(), flushAt) : digest;
+            pending.add(loginTime, maxListedLogins);
+            return pending;
+        });
+    }
+
+    /**
+     * Sends the digests whose window is over and forgets the clients not seen for too long.
+     */
+    @Scheduled(fixedDelayString = "${application.mailing.login-notification.flush-interval}")
+    public void flush() {
+        long now = clock.millis();
+        for (PendingDigest digest : pendingDigests.values()) {
+            if (digest.flushAt <= now && pendingDigests.remove(digest.username, digest)) {
+                mailingService.send(digestMail(digest));
+            }
+        }
+        evictKnownClients(now, null);
+    }
+
+    /**
+     * Sends every pending digest, window over or not: they are only held in memory and would be lost with the
+     * node. The mails go through the outbox, so they survive the shutdown.
+     */
+    @PreDestroy
+    public void flushAll() {
+        for (PendingDigest digest : pendingDigests.values()) {
+            if (pendingDigests.remove(digest.username, digest)) {
+                mailingService.send(digestMail(digest));
+            }
+        }
+        log.info("pending login notifications flushed");
+    }
+
+    public int pendingCount() {
+        return pendingDigests.size();
+    }
+
+    private boolean rememberClient(String username, String client) {
+        long now = clock.millis();
+        boolean[] newClient = new boolean[1];
+        knownClients.compute(username, (key, clients) -> {
+            Map<String, Long> userClients = clients == null ? new LinkedHashMap<>(MAX_CLIENTS_PER_USER + 1, 1f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > MAX_CLIENTS_PER_USER;
+                }
+            } : clients;
+            Long lastSeen = userClients.put(client, now);
+            newClient[0] = lastSeen == null || lastSeen + knownClientTtlMillis <= now;
+            return userClients;
+        });
+        if (knownClients.size() > maxUsers) {
+            evictKnownClients(now, username);
+        }
+        return newClient[0];
+    }
+
+    private void evictKnownClients(long now, String keep) {
+        for (String username : knownClients.keySet()) {
+            knownClients.computeIfPresent(username, (key, clients) -> {
+                clients.values().removeIf(lastSeen -> lastSeen + knownClientTtlMillis <= now);
+                return clients.isEmpty() ? null : clients;
+            });
+        }
+        // still over the bound: forget roughly a tenth of the users, their next login will be notified at once
+        int toRemove = knownClients.size() - maxUsers + Math.max(1, maxUsers / 10);
+        Iterator<String> iterator = knownClients.keySet().iterator();
+        while (knownClients.size() > maxUsers && toRemove > 0 && iterator.hasNext()) {
+            if (!iterator.next().equals(keep)) {
+                iterator.remove();
+                toRemove--;
+            }
+        }
+    }
+
+    private @NotNull MailDTO singleLoginMail(@NotNull User user, @NotNull LocalDateTime loginTime) {
+        String body = String.format("Hello %s . You have just contacted yourself. If you are not the originator of this manipulation: please change your password immediately and/or contact an administrator at %s", user.getUsername(), loginTime.toString());
+        return new MailDTO(user.getEmail(), "Connection notification", body);
+    }
+
+    private @NotNull MailDTO digestMail(@NotNull PendingDigest digest) {
+        // the body is rendered by the HTML mail template: one list item per login
+        StringBuilder body = new StringBuilder(String.format("Hello %s . Your account has been connected to %d time(s):<ul>", HtmlUtils.htmlEscape(digest.username), digest.count));
+        digest.logins.forEach(login -> body.append("<li>").append(login).append("</li>"));
+        if (digest.count > digest.logins.size()) {
+            body.append(String.format("<li>and %d more</li>", digest.count - digest.logins.size()));
+        }
+        body.append("</ul>If you are not the originator of these connections: please change your password immediately and/or contact an administrator.");
+        return new MailDTO(digest.email, "Connection notification", body.toString());
+    }
+
+    private static @NotNull String currentClient() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return UNKNOWN_CLIENT;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String client = request.getRemoteAddr() + "|" + request.getHeader(HttpHeaders.USER_AGENT);
+        return client.length() <= MAX_CLIENT_LENGTH ? client : client.substring(0, MAX_CLIENT_LENGTH);
+    }
+
+    private static final class PendingDigest {
+
+        private final String username;
+        private final String email;
+        private final long flushAt;
+        private final List<LocalDateTime> logins = new ArrayList<>();
+        private int count;
+
+        private PendingDigest(String username, String email, long flushAt) {
+            this.username = username;
+            this.email = email;
+            this.flushAt = flushAt;
+        }
+
+        private void add(LocalDateTime login, int maxListedLogins) {
+            count++;
+            if (logins.size() < maxListedLogins) {
+                logins.add(login);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.mounanga.securityservice.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.configuration.AsyncConfiguration;
+import org.mounanga.securityservice.entity.MailOutbox;
+import org.mounanga.securityservice.enums.MailStatus;
+import org.mounanga.securityservice.repository.MailOutboxRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.mail.javamail.MimeMessageHelper.MULTIPART_MODE_MIXED;
+
+/**
+ * Delivers the mails queued in the outbox. Each batch is locked with {@code SKIP LOCKED}, so several nodes can
+ * drain the same table, and sent in a single call to {@link JavaMailSender#send(MimeMessage...)}, which reuses
+ * one SMTP connection for the whole batch. Failed mails are retried with an exponential backoff and marked
+ * {@link MailStatus#DEAD} once they ran out of attempts or could not be rendered at all. Sent mails are deleted
+ * and dead ones lose their body, so the secrets a mail carries (verification codes) are not kept once the mail
+ * will not be sent anymore.
+ */
+@Service
+@Slf4j
+public class MailOutboxDrainer {
+
+    private static final String NOTIFICATION_TEMPLATE = "notification.html";
+    private static final int MAX_ERROR_LENGTH = 1000;
+    static final String REDACTED_BODY = "[redacted]";
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final SpringTemplateEngine templateEngine;
+    private final ApplicationProperties applicationProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor mailExecutor;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter dead;
+
+    public MailOutboxDrainer(MailOutboxRepository mailOutboxRepository, JavaMailSender mailSender, SpringTemplateEngine templateEngine,
+                             ApplicationProperties applicationProperties, PlatformTransactionManager transactionManager,
+                             @Qualifier(AsyncConfiguration.MAIL_EXECUTOR) TaskExecutor mailExecutor, @NotNull MeterRegistry meterRegistry) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.templateEngine = templateEngine;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mailExecutor = mailExecutor;
+        this.sent = Counter.builder("mail.outbox.delivered").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.outbox.delivered").tag("result", "failed").register(meterRegistry);
+        this.dead = Counter.builder("mail.outbox.delivered").tag("result", "dead").register(meterRegistry);
+    }
+
+    /**
+     * Hands the drain over to the mail executor: SMTP I/O stays on platform threads even when scheduled tasks
+     * run on virtual threads. A drain still running on this node is never started twice.
+     */
+    @Scheduled(fixedDelayString = "${application.mailing.outbox.poll-interval}")
+    public void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            mailExecutor.execute(() -> {
+                try {
+                    drain();
+                } finally {
+                    draining.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            log.warn("Mail executor is saturated, outbox drain postponed");
+        }
+    }
+
+    /**
+     * Sends batches until no mail is due anymore.
+     */
+    public void drain() {
+        int delivered;
+        do {
+            delivered = drainBatch();
+        } while (delivered == applicationProperties.getMailOutboxBatchSize());
+    }
+
+    /**
+     * @return the number of mails taken from the outbox, sent or not
+     */
+    public int drainBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<MailOutbox> batch = mailOutboxRepository.findDue(
+                    MailStatus.PENDING, LocalDateTime.now(), PageRequest.ofSize(applicationProperties.getMailOutboxBatchSize())
+            );
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+            return batch.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    private void deliver(@NotNull List<MailOutbox> batch) {
+        log.info("In deliver(), {} mails", batch.size());
+        Map<MimeMessage, MailOutbox> messages = new LinkedHashMap<>();
+        for (MailOutbox mail : batch) {
+            try {
+                messages.put(render(mail), mail);
+            } catch (Exception e) {
+                // a mail that cannot even be rendered will never succeed: do not retry it
+                markDead(mail, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(messages.keySet(), e);
+            }
+        } catch (MailException e) {
+            failures = allFailed(messages.keySet(), e);
+        }
+
+        List<MailOutbox> delivered = new ArrayList<>();
+        for (Map.Entry<MimeMessage, MailOutbox> entry : messages.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                delivered.add(entry.getValue());
+            } else {
+                retryLater(entry.getValue(), failure);
+            }
+        }
+        mailOutboxRepository.deleteAllInBatch(delivered);
+        sent.increment(delivered.size());
+        log.info("{} mails sent, {} failed", delivered.size(), failures.size());
+    }
+
+    private @NotNull MimeMessage render(@NotNull MailOutbox mail) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, MULTIPART_MODE_MIXED, UTF_8.name());
+        Context context = new Context();
+        context.setVariables(Map.of("data", mail.getBody()));
+
+        helper.setFrom(applicationProperties.getNotificationEmailAddress());
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(templateEngine.process(NOTIFICATION_TEMPLATE, context), true);
+        return mimeMessage;
+    }
+
+    private void retryLater(@NotNull MailOutbox mail, Exception failure) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        if (attempts >= applicationProperties.getMailOutboxMaxAttempts()) {
+            markDead(mail, failure);
+            return;
+        }
+        long backoff = Math.min(
+                applicationProperties.getMailOutboxBackoff() << Math.min(attempts - 1, 30),
+                applicationProperties.getMailOutboxMaxBackoff()
+        );
+        mail.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000L));
+        mail.setLastError(truncate(failure));
+        failed.increment();
+        log.warn("Failed to send mail {}, attempt {}: {}", mail.getId(), attempts, failure.getMessage());
+    }
+
+    private void markDead(@NotNull MailOutbox mail, Exception failure) {
+        mail.setStatus(MailStatus.DEAD);
+        mail.setBody(REDACTED_BODY);
+        mail.setLastError(truncate(failure));
+        dead.increment();
+        log.error("Mail {} moved to dead letters: {}", mail.getId(), failure.getMessage());
+    }
+
+    private static @NotNull Map<Object, Exception> allFailed(@NotNull Collection<MimeMessage> messages, Exception failure) {
+        Map<Object, Exception> failures = new HashMap<>();
+        messages.forEach(message -> failures.put(message, failure));
+        return failures;
+    }
+
+    private static String truncate(@NotNull Exception failure) {
+        String message = String.valueOf(failure.getMessage());
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,69 +1,42 @@
 package org.mounanga.securityservice.service.implementation;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
-import org.mounanga.securityservice.configuration.ApplicationProperties;
 import org.mounanga.securityservice.dto.MailDTO;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.mounanga.securityservice.entity.MailOutbox;
+import org.mounanga.securityservice.enums.MailStatus;
+import org.mounanga.securityservice.repository.MailOutboxRepository;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.springframework.transaction.annotation.Transactional;
 
-import org.thymeleaf.context.Context;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
-
-import java.util.HashMap;
-import java.util.Map;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static org.springframework.mail.javamail.MimeMessageHelper.MULTIPART_MODE_MIXED;
+import java.time.LocalDateTime;
 
+/**
+ * Queues mails in the outbox table, in the transaction of the caller when there is one, so that a mail is
+ * only sent if the change it notifies about is committed. Delivery is done by {@link MailOutboxDrainer}.
+ */
 @Service
 @Slf4j
 public class MailingService {
 
-    private static final String NOTIFICATION_TEMPLATE = "notification.html";
+    private final MailOutboxRepository mailOutboxRepository;
 
-    private final JavaMailSender mailSender;
-    private final SpringTemplateEngine templateEngine;
-    private final ApplicationProperties applicationProperties;
-
-    public MailingService(JavaMailSender mailSender, SpringTemplateEngine templateEngine, ApplicationProperties applicationProperties) {
-        this.mailSender = mailSender;
-        this.templateEngine = templateEngine;
-        this.applicationProperties = applicationProperties;
+    public MailingService(MailOutboxRepository mailOutboxRepository) {
+        this.mailOutboxRepository = mailOutboxRepository;
     }
 
-    @Async
-    public void send(MailDTO mail){
+    @Transactional
+    public void send(@NotNull MailDTO mail){
         log.info("In sending mail");
-        try{
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, MULTIPART_MODE_MIXED, UTF_8.name());
-            Map<String, Object> properties = new HashMap<>();
-            properties.put("data", mail.body());
-            sender(mail.to(), mail.subject(),mimeMessage, helper, properties);
-            log.info("Successfully sent notification");
-        }catch (Exception e) {
-            log.warn("Failed to send notification");
-            log.error(e.getMessage());
-            log.error(e.getLocalizedMessage());
-        }
-
-    }
-
-    private void sender(String to, String subject, MimeMessage mimeMessage, @NotNull MimeMessageHelper helper, Map<String, Object> properties) throws MessagingException {
-        Context context = new Context();
-        context.setVariables(properties);
-
-        helper.setFrom(applicationProperties.getNotificationEmailAddress());
-        helper.setTo(to);
-        helper.setSubject(subject);
-
-        String template = templateEngine.process(NOTIFICATION_TEMPLATE, context);
-        helper.setText(template, true);
-        mailSender.send(mimeMessage);
+        MailOutbox outbox = MailOutbox.builder()
+                .recipient(mail.to())
+                .subject(mail.subject())
+                .body(mail.body())
+                .status(MailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        mailOutboxRepository.save(outbox);
+        log.info("Mail queued for delivery");
     }
 }
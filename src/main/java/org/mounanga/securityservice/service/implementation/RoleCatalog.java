@@ -0,0 +1,214 @@
+package org.mounanga.securityservice.service.implementation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.dto.RoleResponseDTO;
+import org.mounanga.securityservice.repository.RoleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the role table. Readers only dereference an immutable {@link Snapshot}, indexed by id and
+ * by name; writers build a new snapshot and swap it in once their transaction has committed. The whole table
+ * is reloaded at startup and periodically, so that changes made by other nodes show up as well, and a lookup
+ * that misses falls back to the database before reporting the role as unknown.
+ */
+@Slf4j
+@Component
+public class RoleCatalog {
+
+    private final RoleRepository roleRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // serializes reloads and write-through updates, so that a reload never swaps in rows older than an update
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RoleCatalog(RoleRepository roleRepository, @NotNull MeterRegistry meterRegistry) {
+        this.roleRepository = roleRepository;
+        FunctionCounter.builder("role.catalog.requests", hits, LongAdder::sum).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("role.catalog.requests", misses, LongAdder::sum).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("role.catalog.version", this, RoleCatalog::version).register(meterRegistry);
+        Gauge.builder("role.catalog.size", this, catalog -> catalog.snapshot().all().size()).register(meterRegistry);
+    }
+
+    public Optional<RoleResponseDTO> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return lookup(current -> current.byId().get(id), () -> roleRepository.findViewById(id));
+    }
+
+    public Optional<RoleResponseDTO> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return lookup(current -> current.byName().get(name), () -> roleRepository.findViewByName(name));
+    }
+
+    /**
+     * @return every role, ordered by id
+     */
+    public List<RoleResponseDTO> findAll() {
+        hits.increment();
+        return snapshot().all();
+    }
+
+    /**
+     * @return the given page of {@link #findAll()}
+     * @throws IllegalArgumentException when the page is negative or the size is not positive
+     */
+    public List<RoleResponseDTO> findAll(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index must not be less than zero");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        List<RoleResponseDTO> all = findAll();
+        int from = (int) Math.min((long) page * size, all.size());
+        return all.subList(from, Math.min(from + size, all.size()));
+    }
+
+    /**
+     * Adds or replaces the role once the current transaction has committed, right away without transaction.
+     */
+    public void put(@NotNull RoleResponseDTO role) {
+        afterCommit(current -> current.with(role));
+    }
+
+    /**
+     * Removes the role once the current transaction has committed, right away without transaction.
+     */
+    public void remove(@NotNull Long id) {
+        afterCommit(current -> current.without(id));
+    }
+
+    /**
+     * Removes a role found to be gone from the database right away, whatever the current transaction.
+     */
+    public void evict(@NotNull Long id) {
+        update(current -> current.without(id));
+    }
+
+    /**
+     * Reloads the whole table and swaps the new snapshot in.
+     * Runs outside of any read-only transaction, hence on the primary: a snapshot read from a lagging replica
+     * could drop a role written through since.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${application.role-catalog.refresh-interval}", initialDelayString = "${application.role-catalog.refresh-interval}")
+    public void reload() {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot.get();
+            long version = current == null ? 1 : current.version() + 1;
+            Snapshot reloaded = Snapshot.of(version, roleRepository.findAllViews());
+            snapshot.set(reloaded);
+            log.debug("role catalog reloaded: {} roles, version {}", reloaded.all().size(), version);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long version() {
+        return snapshot().version();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private Optional<RoleResponseDTO> lookup(@NotNull Function<Snapshot, RoleResponseDTO> cached, Supplier<Optional<RoleResponseDTO>> database) {
+        RoleResponseDTO role = cached.apply(snapshot());
+        if (role != null) {
+            hits.increment();
+            return Optional.of(role);
+        }
+        misses.increment();
+        // created on another node since the last reload: read it once and keep it, but only once the reading
+        // transaction has committed, since the row may only be visible to that transaction
+        Optional<RoleResponseDTO> loaded = database.get();
+        loaded.ifPresent(found -> afterCommit(current -> current.with(found)));
+        return loaded;
+    }
+
+    private void afterCommit(Function<Snapshot, Snapshot> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(change);
+            }
+        });
+    }
+
+    private void update(Function<Snapshot, Snapshot> change) {
+        writeLock.lock();
+        try {
+            snapshot.set(change.apply(snapshot()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            reload();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private record Snapshot(long version, Map<Long, RoleResponseDTO> byId, Map<String, RoleResponseDTO> byName, List<RoleResponseDTO> all) {
+
+        static @NotNull Snapshot of(long version, @NotNull Collection<RoleResponseDTO> roles) {
+            Map<Long, RoleResponseDTO> byId = new HashMap<>();
+            Map<String, RoleResponseDTO> byName = new HashMap<>();
+            roles.forEach(role -> {
+                byId.put(role.id(), role);
+                byName.put(role.name(), role);
+            });
+            List<RoleResponseDTO> all = new ArrayList<>(byId.values());
+            all.sort(Comparator.comparing(RoleResponseDTO::id));
+            return new Snapshot(version, Map.copyOf(byId), Map.copyOf(byName), List.copyOf(all));
+        }
+
+        @NotNull Snapshot with(@NotNull RoleResponseDTO role) {
+            Map<Long, RoleResponseDTO> roles = new HashMap<>(byId);
+            roles.put(role.id(), role);
+            return of(version + 1, roles.values());
+        }
+
+        @NotNull Snapshot without(@NotNull Long id) {
+            if (!byId.containsKey(id)) {
+                return this;
+            }
+            Map<Long, RoleResponseDTO> roles = new HashMap<>(byId);
+            roles.remove(id);
+            return of(version + 1, roles.values());
+        }
+    }
+}
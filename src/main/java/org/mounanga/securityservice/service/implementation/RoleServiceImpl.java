@@ -2,6 +2,7 @@ package org.mounanga.securityservice.service.implementation;
 
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
 import org.mounanga.securityservice.dto.RoleRequestDTO;
 import org.mounanga.securityservice.dto.RoleResponseDTO;
 import org.mounanga.securityservice.entity.Role;
@@ -10,10 +11,11 @@ import org.mounanga.securityservice.exception.FieldValidationException;
 import org.mounanga.securityservice.exception.RoleNotFoundException;
 import org.mounanga.securityservice.repository.RoleRepository;
 import org.mounanga.securityservice.service.RoleService;
+import org.mounanga.securityservice.util.CursorCodec;
 import org.mounanga.securityservice.util.Mappers;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,57 +29,94 @@ public class RoleServiceImpl implements RoleService {
     private static final String ROLE_NOT_FOUND = "Role not found";
 
     private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
 
-    public RoleServiceImpl(RoleRepository roleRepository) {
+    public RoleServiceImpl(RoleRepository roleRepository, RoleCatalog roleCatalog) {
         this.roleRepository = roleRepository;
+        this.roleCatalog = roleCatalog;
     }
 
+    // lookups and listings are served by the in-memory catalog, searches select straight into RoleResponseDTO
+
     @Override
     public RoleResponseDTO findRoleByName(String roleName) {
         log.info("In findRoleByName()");
-        Role role = roleRepository.findByName(roleName).orElseThrow(() -> new RoleNotFoundException(ROLE_NOT_FOUND));
+        RoleResponseDTO role = roleCatalog.findByName(roleName).orElseThrow(() -> new RoleNotFoundException(ROLE_NOT_FOUND));
         log.info("role with name '{}' found", roleName);
-        return Mappers.from(role);
+        return role;
     }
 
     @Override
     public RoleResponseDTO findRoleById(Long id) {
         log.info("In findRoleById()");
-        Role role = roleRepository.findById(id).orElseThrow(() -> new RoleNotFoundException(ROLE_NOT_FOUND));
+        RoleResponseDTO role = roleCatalog.findById(id).orElseThrow(() -> new RoleNotFoundException(ROLE_NOT_FOUND));
         log.info("role with id '{}' found", id);
-        return Mappers.from(role);
+        return role;
     }
 
     @Override
     public List<RoleResponseDTO> findAllRoles() {
         log.info("In findAllRoles()");
-        List<Role> roles = roleRepository.findAll();
+        List<RoleResponseDTO> roles = roleCatalog.findAll();
         log.info("roles found");
-        return roles.stream().map(Mappers::from).toList();
+        return roles;
     }
 
     @Override
     public List<RoleResponseDTO> findAllRoles(int page, int size) {
         log.info("In findAllRoles() by page");
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Role> roles = roleRepository.findAll(pageable);
-        log.info("{} roles found", roles.getTotalElements());
-        return roles.getContent().stream().map(Mappers::from).toList();
+        List<RoleResponseDTO> roles = roleCatalog.findAll(page, size);
+        log.info("{} roles found", roles.size());
+        return roles;
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<RoleResponseDTO> searchAllRoles(String keyword, int page, int size) {
         log.info("In searchAllRoles()");
         Pageable pageable = PageRequest.of(page, size);
-        Page<Role> roles = roleRepository.search("%"+keyword+"%", pageable);
-        log.info("{} roles found.", roles.getTotalElements());
-        return roles.getContent().stream().map(Mappers::from).toList();
+        Slice<RoleResponseDTO> roles = roleRepository.search("%"+keyword+"%", pageable);
+        log.info("{} roles found.", roles.getNumberOfElements());
+        return roles.getContent();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageResponseDTO<RoleResponseDTO> findAllRoles(String after, int size) {
+        log.info("In findAllRoles() with cursor");
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<RoleResponseDTO> roles;
+        if (after == null || after.isBlank()) {
+            roles = roleRepository.findFirstPage(pageable);
+        } else {
+            CursorCodec.Cursor cursor = CursorCodec.decode(after);
+            roles = roleRepository.findPageAfter(cursor.sortKey(), cursor.id(), pageable);
+        }
+        log.info("{} roles found", roles.getNumberOfElements());
+        return toCursorPage(roles);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageResponseDTO<RoleResponseDTO> searchAllRoles(String keyword, String after, int size) {
+        log.info("In searchAllRoles() with cursor");
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<RoleResponseDTO> roles;
+        if (after == null || after.isBlank()) {
+            roles = roleRepository.searchFirstPage("%"+keyword+"%", pageable);
+        } else {
+            CursorCodec.Cursor cursor = CursorCodec.decode(after);
+            roles = roleRepository.searchPageAfter("%"+keyword+"%", cursor.sortKey(), cursor.id(), pageable);
+        }
+        log.info("{} roles found.", roles.getNumberOfElements());
+        return toCursorPage(roles);
     }
 
     @Override
     public void deleteRoleById(Long id) {
         log.info("In deleteRoleById()");
         roleRepository.deleteById(id);
+        roleCatalog.remove(id);
         log.info("role with id '{}' deleted", id);
     }
 
@@ -93,7 +132,9 @@ public class RoleServiceImpl implements RoleService {
         }
         Role savedRole = roleRepository.save(roleEntity);
         log.info("role has been saved with id '{}'", savedRole.getId());
-        return Mappers.from(savedRole);
+        RoleResponseDTO response = Mappers.from(savedRole);
+        roleCatalog.put(response);
+        return response;
     }
 
     @Transactional
@@ -110,6 +151,18 @@ public class RoleServiceImpl implements RoleService {
         role.setDescription(roleRequestDTO.description());
         Role updatedRole = roleRepository.save(role);
         log.info("role with id {} has been updated", updatedRole.getId());
-        return Mappers.from(updatedRole);
+        RoleResponseDTO response = Mappers.from(updatedRole);
+        roleCatalog.put(response);
+        return response;
+    }
+
+    private @NotNull CursorPageResponseDTO<RoleResponseDTO> toCursorPage(@NotNull Slice<RoleResponseDTO> roles) {
+        List<RoleResponseDTO> content = roles.getContent();
+        String next = null;
+        if (roles.hasNext() && !content.isEmpty()) {
+            RoleResponseDTO last = content.get(content.size() - 1);
+            next = CursorCodec.encode(last.name(), last.id());
+        }
+        return new CursorPageResponseDTO<>(content, next);
     }
 }
@@ -0,0 +1,73 @@
+package org.mounanga.securityservice.service.implementation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.repository.SchedulerLeaseRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Leases kept in the {@code scheduler_lease} table, so that a job scheduled on every node of the cluster
+ * only runs on one of them. A lease is taken with a single conditional update; a node that dies while
+ * holding it only blocks the job until the lease expires.
+ */
+@Slf4j
+@Service
+public class SchedulerLeaseManager {
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    public SchedulerLeaseManager(SchedulerLeaseRepository leaseRepository, PlatformTransactionManager transactionManager) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = hostName() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * @return true when this node holds the lease until {@code duration} from now
+     */
+    public boolean tryAcquire(@NotNull String name, @NotNull Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(duration);
+        Integer updated = transactionTemplate.execute(status -> leaseRepository.acquire(name, owner, now, until));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        if (leaseRepository.existsById(name)) {
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> leaseRepository.create(name, owner, until));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Lease {} created concurrently by another node", name);
+            return false;
+        }
+    }
+
+    public void release(@NotNull String name) {
+        transactionTemplate.executeWithoutResult(status -> leaseRepository.release(name, owner, LocalDateTime.now()));
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.mounanga.securityservice.service.implementation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.dto.ProfileResponseDTO;
+import org.mounanga.securityservice.dto.UserResponseDTO;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.ExportFormat;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.util.Mappers;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes every user to the response as it is read from a forward-only result set: the persistence context
+ * is cleared every {@link #CHUNK_SIZE} rows and the output flushed, so heap use does not depend on the
+ * number of users.
+ */
+@Slf4j
+@Service
+public class UserExportService {
+
+    static final int CHUNK_SIZE = 500;
+    private static final String CSV_HEADER = "id,username,email,enabled,passwordMustBeModified,firstname,lastname,createdDate,createdBy";
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public UserExportService(UserRepository userRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        // the response is written to and flushed by this service only, never by the JSON generator
+        this.jsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(@NotNull ExportFormat format, @NotNull OutputStream outputStream) throws IOException {
+        log.info("In export() with format {}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+        long count = 0;
+        try (Stream<User> users = userRepository.streamAll()) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserResponseDTO user = Mappers.from(iterator.next());
+                if (format == ExportFormat.NDJSON) {
+                    jsonWriter.writeValue(writer, user);
+                    writer.write('\n');
+                } else {
+                    writeCsv(writer, user);
+                }
+                if (++count % CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("{} users exported", count);
+    }
+
+    private static void writeCsv(@NotNull Writer writer, @NotNull UserResponseDTO user) throws IOException {
+        ProfileResponseDTO profile = user.getProfile();
+        writer.write(String.valueOf(user.getId()));
+        writer.write(',');
+        writer.write(csv(user.getUsername()));
+        writer.write(',');
+        writer.write(csv(user.getEmail()));
+        writer.write(',');
+        writer.write(String.valueOf(user.getEnabled()));
+        writer.write(',');
+        writer.write(String.valueOf(user.getPasswordMustBeModified()));
+        writer.write(',');
+        writer.write(csv(profile == null ? null : profile.getFirstname()));
+        writer.write(',');
+        writer.write(csv(profile == null ? null : profile.getLastname()));
+        writer.write(',');
+        writer.write(user.getCreatedDate() == null ? "" : user.getCreatedDate().toString());
+        writer.write(',');
+        writer.write(csv(user.getCreatedBy()));
+        writer.write('\n');
+    }
+
+    static @NotNull String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        // a leading formula character would be evaluated by spreadsheet applications
+        String safe = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (safe.indexOf(',') < 0 && safe.indexOf('"') < 0 && safe.indexOf('\n') < 0 && safe.indexOf('\r') < 0) {
+            return safe;
+        }
+        return '"' + safe.replace("\"", "\"\"") + '"';
+    }
+}
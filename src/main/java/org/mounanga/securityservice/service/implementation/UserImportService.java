@@ -0,0 +1,420 @@
+package org.mounanga.securityservice.service.implementation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.dto.UserImportResultDTO;
+import org.mounanga.securityservice.dto.UserImportRowDTO;
+import org.mounanga.securityservice.dto.UserRequestDTO;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.exception.FieldError;
+import org.mounanga.securityservice.exception.InvalidImportException;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.security.BoundedPasswordEncoder;
+import org.mounanga.securityservice.util.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Creates users in bulk, from a JSON array of {@link UserRequestDTO} or from a CSV file with the same field
+ * names as header. Rows are processed in chunks: uniqueness is checked with one {@code IN} query per field and
+ * chunk, passwords are hashed in parallel, and users and profiles are written with two JDBC batches in one
+ * transaction per chunk, which the pooled id generator makes possible. A rejected row never fails the import, it is reported with its errors.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    static final List<String> CSV_COLUMNS = List.of("username", "email", "password", "firstname", "lastname", "placeOfBirth",
+            "dateOfBirth", "nationality", "gender", "personalIdentificationNumber");
+
+    private static final String ALREADY_IN_USE = " is already in use";
+    private static final String DUPLICATED = " is duplicated in the import";
+
+    private final UserRepository userRepository;
+    private final ProfileRepository profileRepository;
+    private final UserUniquenessChecker uniquenessChecker;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingExecutor;
+    private final int chunkSize;
+    private final int maxRows;
+
+    @Autowired
+    public UserImportService(UserRepository userRepository, ProfileRepository profileRepository, UserUniquenessChecker uniquenessChecker,
+                             PlatformTransactionManager transactionManager, PasswordEncoder passwordEncoder, Validator validator,
+                             ObjectMapper objectMapper, @NotNull ApplicationProperties properties) {
+        this(userRepository, profileRepository, uniquenessChecker, transactionManager, passwordEncoder, validator, objectMapper,
+                properties.getUserImportChunkSize(), properties.getUserImportMaxRows(), properties.getUserImportHashingThreads());
+    }
+
+    /**
+     * The import hashes on threads of its own, with the encoder behind the bounded login pool: a large import
+     * then never fills the queue that logins wait in.
+     */
+    public UserImportService(UserRepository userRepository, ProfileRepository profileRepository, UserUniquenessChecker uniquenessChecker,
+                             PlatformTransactionManager transactionManager, PasswordEncoder passwordEncoder, Validator validator,
+                             ObjectMapper objectMapper, int chunkSize, int maxRows, int hashingThreads) {
+        this.userRepository = userRepository;
+        this.profileRepository = profileRepository;
+        this.uniquenessChecker = uniquenessChecker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        AtomicInteger count = new AtomicInteger();
+        this.hashingExecutor = Executors.newFixedThreadPool(hashingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public UserImportResultDTO importUsers(@NotNull List<UserRequestDTO> users) {
+        log.info("In importUsers()");
+        List<Row> rows = new ArrayList<>(users.size());
+        for (UserRequestDTO user : users) {
+            rows.add(new Row(rows.size() + 1, user == null ? new UserRequestDTO() : user));
+        }
+        return importRows(rows);
+    }
+
+    /**
+     * Reads the JSON array one element at a time, so that a body over the row limit is refused as soon as the
+     * row past the limit is reached, and never bound as a whole.
+     */
+    public UserImportResultDTO importJson(@NotNull InputStream input) throws IOException {
+        log.info("In importJson()");
+        List<Row> rows = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidImportException("The JSON body must be an array of users");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new InvalidImportException("The JSON array is not closed");
+                }
+                checkSize(rows.size() + 1);
+                UserRequestDTO user = objectMapper.readValue(parser, UserRequestDTO.class);
+                rows.add(new Row(rows.size() + 1, user == null ? new UserRequestDTO() : user));
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportException("The JSON body is malformed: " + e.getOriginalMessage());
+        }
+        return importRows(rows);
+    }
+
+    public UserImportResultDTO importCsv(@NotNull Reader reader) throws IOException {
+        log.info("In importCsv()");
+        BufferedReader input = new BufferedReader(reader);
+        List<String> header = readCsvRecord(input);
+        if (header == null) {
+            throw new InvalidImportException("The CSV file is empty");
+        }
+        header = header.stream().map(String::strip).toList();
+        for (String column : header) {
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new InvalidImportException(String.format("Unknown CSV column '%s', expected %s", column, CSV_COLUMNS));
+            }
+        }
+        List<Row> rows = new ArrayList<>();
+        List<String> values;
+        while ((values = readCsvRecord(input)) != null) {
+            if (values.size() == 1 && values.getFirst().isBlank()) {
+                continue;
+            }
+            checkSize(rows.size() + 1);
+            rows.add(fromCsv(rows.size() + 1, header, values));
+        }
+        return importRows(rows);
+    }
+
+    @PreDestroy
+    public void close() {
+        hashingExecutor.shutdownNow();
+    }
+
+    private @NotNull UserImportResultDTO importRows(@NotNull List<Row> rows) {
+        checkSize(rows.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> personalIdentificationNumbers = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<Row> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            for (Row row : chunk) {
+                validate(row);
+                if (row.errors.isEmpty()) {
+                    checkDuplicated(row, usernames, emails, personalIdentificationNumbers);
+                }
+            }
+            List<Row> valid = chunk.stream().filter(row -> row.errors.isEmpty()).toList();
+            checkExisting(valid);
+            valid = valid.stream().filter(row -> row.errors.isEmpty()).toList();
+            hashPasswords(valid);
+            insert(valid);
+        }
+        List<UserImportRowDTO> results = rows.stream()
+                .map(row -> new UserImportRowDTO(row.number, row.user.getUsername(), row.id, List.copyOf(row.errors)))
+                .toList();
+        int imported = (int) results.stream().filter(row -> row.id() != null).count();
+        log.info("{} users imported, {} rows rejected", imported, rows.size() - imported);
+        return new UserImportResultDTO(imported, rows.size() - imported, results);
+    }
+
+    private void checkSize(int rows) {
+        if (rows > maxRows) {
+            throw new InvalidImportException(String.format("An import is limited to %d rows", maxRows));
+        }
+    }
+
+    private void validate(@NotNull Row row) {
+        Set<String> unreadable = new HashSet<>();
+        row.errors.forEach(error -> unreadable.add(error.field()));
+        for (ConstraintViolation<UserRequestDTO> violation : validator.validate(row.user)) {
+            String field = violation.getPropertyPath().toString();
+            // a CSV value that could not be parsed is already reported, not as missing as well
+            if (!unreadable.contains(field)) {
+                row.errors.add(new FieldError(field, violation.getMessage()));
+            }
+        }
+        if (row.user.getEmail() == null || row.user.getEmail().isBlank()) {
+            row.errors.add(new FieldError("email", "field 'email' is mandatory: it can not be blank"));
+        }
+    }
+
+    private static void checkDuplicated(@NotNull Row row, @NotNull Set<String> usernames, @NotNull Set<String> emails,
+                                        @NotNull Set<String> personalIdentificationNumbers) {
+        UserRequestDTO user = row.user;
+        if (!usernames.add(user.getUsername())) {
+            row.errors.add(new FieldError("username", "Username" + DUPLICATED));
+        }
+        if (!emails.add(user.getEmail())) {
+            row.errors.add(new FieldError("email", "Email" + DUPLICATED));
+        }
+        if (!personalIdentificationNumbers.add(user.getPersonalIdentificationNumber())) {
+            row.errors.add(new FieldError("personalIdentificationNumber", "PersonalIdentificationNumber" + DUPLICATED));
+        }
+    }
+
+    private void checkExisting(@NotNull List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Set<String> usernames = existing(rows, UserUniquenessChecker.USERNAME, UserRequestDTO::getUsername,
+                userRepository::findExistingUsernames);
+        Set<String> emails = existing(rows, UserUniquenessChecker.EMAIL, UserRequestDTO::getEmail, userRepository::findExistingEmails);
+        Set<String> personalIdentificationNumbers = existing(rows, UserUniquenessChecker.PERSONAL_IDENTIFICATION_NUMBER,
+                UserRequestDTO::getPersonalIdentificationNumber, profileRepository::findExistingPersonalIdentificationNumbers);
+        for (Row row : rows) {
+            if (usernames.contains(row.user.getUsername())) {
+                row.errors.add(new FieldError("username", "Username" + ALREADY_IN_USE));
+            }
+            if (emails.contains(row.user.getEmail())) {
+                row.errors.add(new FieldError("email", "Email" + ALREADY_IN_USE));
+            }
+            if (personalIdentificationNumbers.contains(row.user.getPersonalIdentificationNumber())) {
+                row.errors.add(new FieldError("personalIdentificationNumber", "PersonalIdentificationNumber" + ALREADY_IN_USE));
+            }
+        }
+    }
+
+    /**
+     * @return the values of the field already taken, looking up only those the uniqueness filter cannot prove free
+     */
+    private @NotNull Set<String> existing(@NotNull List<Row> rows, String field, Function<UserRequestDTO, String> value,
+                                          @NotNull Function<Collection<String>, List<String>> query) {
+        List<String> values = rows.stream()
+                .map(row -> value.apply(row.user))
+                .filter(candidate -> uniquenessChecker.mightExist(field, candidate))
+                .toList();
+        return values.isEmpty() ? Set.of() : new HashSet<>(query.apply(values));
+    }
+
+    private void hashPasswords(@NotNull List<Row> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            hashes.add(hashingExecutor.submit(() -> passwordEncoder.encode(row.user.getPassword())));
+        }
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).encodedPassword = hashes.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted", e);
+        } catch (ExecutionException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            throw new IllegalStateException("Unable to hash the passwords of the import", e.getCause());
+        }
+    }
+
+    private void insert(@NotNull List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(rows));
+            rows.forEach(this::record);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent write took one of the values since the check: find out which rows, one by one
+            log.warn("Batch insert of {} users failed, retrying row by row: {}", rows.size(), e.getMessage());
+            for (Row row : rows) {
+                row.id = null;
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertBatch(List.of(row)));
+                    record(row);
+                } catch (DataIntegrityViolationException rowException) {
+                    row.id = null;
+                    row.errors.add(new FieldError("user", "Username, email or personal identification number" + ALREADY_IN_USE));
+                }
+            }
+        }
+    }
+
+    private void record(@NotNull Row row) {
+        uniquenessChecker.record(row.user.getUsername(), row.user.getEmail(), row.user.getPersonalIdentificationNumber());
+    }
+
+    private void insertBatch(@NotNull List<Row> rows) {
+        List<User> users = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            User user = Mappers.from(row.user);
+            user.setPassword(row.encodedPassword);
+            users.add(user);
+        }
+        // the ids come from the pooled generator: the flush sends the users, then the profiles, as two batches
+        userRepository.saveAll(users);
+        userRepository.flush();
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).id = users.get(i).getId();
+        }
+    }
+
+    private static @NotNull Row fromCsv(int number, @NotNull List<String> header, @NotNull List<String> values) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String value = values.get(i).strip();
+            fields.put(header.get(i), value.isEmpty() ? null : value);
+        }
+        List<FieldError> errors = new ArrayList<>();
+        UserRequestDTO user = UserRequestDTO.builder()
+                .username(fields.get("username"))
+                .email(fields.get("email"))
+                .password(fields.get("password"))
+                .firstname(fields.get("firstname"))
+                .lastname(fields.get("lastname"))
+                .placeOfBirth(fields.get("placeOfBirth"))
+                .nationality(fields.get("nationality"))
+                .personalIdentificationNumber(fields.get("personalIdentificationNumber"))
+                .build();
+        String dateOfBirth = fields.get("dateOfBirth");
+        if (dateOfBirth != null) {
+            try {
+                user.setDateOfBirth(LocalDate.parse(dateOfBirth));
+            } catch (DateTimeParseException e) {
+                errors.add(new FieldError("dateOfBirth", "field 'date of birth' must be formatted as yyyy-MM-dd"));
+            }
+        }
+        String gender = fields.get("gender");
+        if (gender != null) {
+            try {
+                user.setGender(Gender.valueOf(gender.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                errors.add(new FieldError("gender", "field 'gender' must be one of " + Arrays.toString(Gender.values())));
+            }
+        }
+        Row row = new Row(number, user);
+        row.errors.addAll(errors);
+        return row;
+    }
+
+    /**
+     * Reads one RFC 4180 record: fields separated by commas, optionally quoted, quotes doubled inside a quoted
+     * field, which may span lines.
+     *
+     * @return the fields of the record, {@code null} at the end of the input
+     */
+    static List<String> readCsvRecord(@NotNull BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class Row {
+
+        private final int number;
+        private final UserRequestDTO user;
+        private final List<FieldError> errors = new ArrayList<>();
+        private String encodedPassword;
+        private Long id;
+
+        private Row(int number, UserRequestDTO user) {
+            this.number = number;
+            this.user = user;
+        }
+    }
+}
@@ -2,44 +2,52 @@ package org.mounanga.securityservice.service.implementation;
 
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
+import org.mounanga.securityservice.dto.RoleResponseDTO;
 import org.mounanga.securityservice.dto.UpdatePasswordRequestDTO;
 import org.mounanga.securityservice.dto.UserRequestDTO;
 import org.mounanga.securityservice.dto.UserResponseDTO;
 import org.mounanga.securityservice.dto.UserRoleRequestDTO;
-import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.dto.UserView;
 import org.mounanga.securityservice.entity.User;
 import org.mounanga.securityservice.exception.FieldError;
 import org.mounanga.securityservice.exception.FieldValidationException;
 import org.mounanga.securityservice.exception.RoleNotFoundException;
 import org.mounanga.securityservice.exception.UserNotFoundException;
-import org.mounanga.securityservice.repository.ProfileRepository;
 import org.mounanga.securityservice.repository.RoleRepository;
 import org.mounanga.securityservice.repository.UserRepository;
 import org.mounanga.securityservice.service.UserService;
+import org.mounanga.securityservice.util.CursorCodec;
 import org.mounanga.securityservice.util.Mappers;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final String UNIQUENESS_PROBLEM = "problem of uniqueness of e-mail, personal identification number or username fields";
+
     private final UserRepository userRepository;
-    private final ProfileRepository profileRepository;
+    private final UserUniquenessChecker uniquenessChecker;
     private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
     private final PasswordEncoder passwordEncoder;
 
-    public UserServiceImpl(UserRepository userRepository, ProfileRepository profileRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, UserUniquenessChecker uniquenessChecker, RoleRepository roleRepository,
+                           RoleCatalog roleCatalog, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
-        this.profileRepository = profileRepository;
+        this.uniquenessChecker = uniquenessChecker;
         this.roleRepository = roleRepository;
+        this.roleCatalog = roleCatalog;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -50,7 +58,7 @@ public class UserServiceImpl implements UserService {
         checkFieldUniquenessBeforeSave(userRequestDTO.getEmail(), userRequestDTO.getUsername(), userRequestDTO.getPersonalIdentificationNumber());
         User user = Mappers.from(userRequestDTO);
         user.setPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
-        User savedUser = userRepository.save(user);
+        User savedUser = saveUniqueFields(user, userRequestDTO.getUsername(), userRequestDTO.getEmail(), userRequestDTO.getPersonalIdentificationNumber());
         log.info("user saved with id '{}' at '{}' by '{}'", savedUser.getId(), savedUser.getCreatedDate(), savedUser.getCreatedBy());
         return Mappers.from(savedUser);
     }
@@ -62,7 +70,7 @@ public class UserServiceImpl implements UserService {
         User user = findUserById(id);
         checkFieldUniquenessBeforeUpdate(user, userRequestDTO.getEmail(), userRequestDTO.getUsername(), userRequestDTO.getPersonalIdentificationNumber());
         updateUserField(user,userRequestDTO);
-        User updatedUser = userRepository.save(user);
+        User updatedUser = saveUniqueFields(user, userRequestDTO.getUsername(), userRequestDTO.getEmail(), userRequestDTO.getPersonalIdentificationNumber());
         log.info("user with id '{}' updated at '{}' by '{}'", updatedUser.getId(), updatedUser.getLastModifiedDate(), updatedUser.getLastModifiedBy());
         return Mappers.from(updatedUser);
     }
@@ -79,10 +87,19 @@ public class UserServiceImpl implements UserService {
     public UserResponseDTO addRoleToUser(@NotNull UserRoleRequestDTO userRoleRequestDTO) {
         log.info("In addRoleToUser()");
         User user = findUserById(userRoleRequestDTO.userId());
-        Role role = findRoleById(userRoleRequestDTO.roleId());
-        user.getRoles().add(role);
-        User updatedUser = userRepository.save(user);
-        log.info("role '{}' added successfully to user with id {}", role.getName(), updatedUser.getId());
+        RoleResponseDTO role = findRoleById(userRoleRequestDTO.roleId());
+        // the catalog vouches for the role, a reference is enough to write the join row
+        user.getRoles().add(roleRepository.getReferenceById(role.id()));
+        User updatedUser;
+        try {
+            updatedUser = userRepository.save(user);
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            // deleted on another node since this catalog was loaded: the join row has no role to point to
+            roleCatalog.evict(role.id());
+            throw new RoleNotFoundException(String.format("role with id '%s' not found", role.id()));
+        }
+        log.info("role '{}' added successfully to user with id {}", role.name(), updatedUser.getId());
         return Mappers.from(updatedUser);
     }
 
@@ -91,10 +108,10 @@ public class UserServiceImpl implements UserService {
     public UserResponseDTO removeRoleFromUser(@NotNull UserRoleRequestDTO userRoleRequestDTO) {
         log.info("In removeRoleFromUser()");
         User user = findUserById(userRoleRequestDTO.userId());
-        Role role = findRoleById(userRoleRequestDTO.roleId());
-        user.getRoles().remove(role);
+        RoleResponseDTO role = findRoleById(userRoleRequestDTO.roleId());
+        user.getRoles().removeIf(userRole -> role.id().equals(userRole.getId()));
         User updatedUser = userRepository.save(user);
-        log.info("role '{}' removed successfully from user with id {}", role.getName(), updatedUser.getId());
+        log.info("role '{}' removed successfully from user with id {}", role.name(), updatedUser.getId());
         return Mappers.from(updatedUser);
     }
 
@@ -112,92 +129,147 @@ public class UserServiceImpl implements UserService {
         return Mappers.from(updatedUser);
     }
 
+    // reads select straight into UserView: read-only transactions, no entity and no flush
+
+    @Transactional(readOnly = true)
     @Override
     public UserResponseDTO getUserById(Long id) {
         log.info("In getUserById()");
-        User user = findUserById(id);
-        log.info("user with id '{}' found", user.getId());
+        UserView user = userRepository.findViewById(id)
+                .orElseThrow( () -> new UserNotFoundException(String.format("user with id '%s' not found", id)));
+        log.info("user with id '{}' found", user.id());
         return Mappers.from(user);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public UserResponseDTO getUserByUsername(String username) {
         log.info("In getUserByUsername()");
-        User user = findUserByUsername(username);
+        UserView user = userRepository.findViewByUsername(username)
+                .orElseThrow( () -> new UserNotFoundException(String.format("user with username '%s' not found", username)));
         log.info("user with username '{}' found", username);
         return Mappers.from(user);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public UserResponseDTO getUserByEmail(String email) {
         log.info("In getUserByEmail()");
-        User user = userRepository.findByEmail(email)
+        UserView user = userRepository.findViewByEmail(email)
                 .orElseThrow( () -> new UserNotFoundException(String.format("User with email '%s' not found", email)));
-        log.info("user with email '{}' found", user.getEmail());
+        log.info("user with email '{}' found", user.email());
         return Mappers.from(user);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<UserResponseDTO> getUsers(int page, int size) {
         log.info("In getUsers() with page & size");
         Pageable pageable = PageRequest.of(page, size);
-        Page<User> users = userRepository.findAll(pageable);
+        Page<UserView> users = userRepository.findAllViews(pageable);
         log.info("{} users found", users.getTotalElements());
-        return Mappers.from(users.getContent());
+        return users.getContent().stream().map(Mappers::from).toList();
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<UserResponseDTO> getUsers() {
         log.info("In getUsers()");
-        List<User> users = userRepository.findAll();
+        List<UserView> users = userRepository.findAllViews();
         log.info("{} users found.", users.size());
-        return Mappers.from(users);
+        return users.stream().map(Mappers::from).toList();
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<UserResponseDTO> searchUsers(String keyword, int page, int size) {
         log.info("In searchUsers()");
         Pageable pageable = PageRequest.of(page, size);
-        Page<User> users = userRepository.search("%"+keyword+"%", pageable);
-        log.info("{} users found. with query '{}'", users.getTotalElements(), keyword);
-        return Mappers.from(users.getContent());
+        Slice<UserView> users = userRepository.search("%"+keyword+"%", pageable);
+        log.info("{} users found. with query '{}'", users.getNumberOfElements(), keyword);
+        return users.getContent().stream().map(Mappers::from).toList();
     }
 
-    // PRIVATE METHODS
-
-    private void checkFieldUniquenessBeforeSave(String email, String username, String personalIdentificationNumber) {
-        List<FieldError> errors = new ArrayList<>();
-        if(userRepository.existsByUsername(username)){
-            errors.add(new FieldError("username", "Username is already in use"));
-        }
-        if(userRepository.existsByEmail(email)){
-            errors.add(new FieldError("email", "Email is already in use"));
-        }
-        if(profileRepository.existsByPersonalIdentificationNumber(personalIdentificationNumber)){
-            errors.add(new FieldError("personalIdentificationNumber", "PersonalIdentificationNumber is already in use"));
-        }
-        if(!errors.isEmpty()){
-            throw new FieldValidationException(errors, "problem of uniqueness of e-mail, personal identification number or username fields");
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageResponseDTO<UserResponseDTO> getUsers(String after, int size) {
+        log.info("In getUsers() with cursor");
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<UserView> users;
+        if (after == null || after.isBlank()) {
+            users = userRepository.findFirstPage(pageable);
+        } else {
+            CursorCodec.Cursor cursor = CursorCodec.decode(after);
+            users = userRepository.findPageAfter(cursor.sortKey(), cursor.id(), pageable);
         }
+        log.info("{} users found", users.getNumberOfElements());
+        return toCursorPage(users);
     }
 
-    private void checkFieldUniquenessBeforeUpdate(@NotNull User user, String email, String username, String personalIdentificationNumber) {
-        List<FieldError> errors = new ArrayList<>();
-        if(!user.getEmail().equals(email) && userRepository.existsByEmail(email)){
-                errors.add(new FieldError("email", "Email is already in use"));
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageResponseDTO<UserResponseDTO> searchUsers(String keyword, String after, int size) {
+        log.info("In searchUsers() with cursor");
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<UserView> users;
+        if (after == null || after.isBlank()) {
+            users = userRepository.searchFirstPage("%"+keyword+"%", pageable);
+        } else {
+            CursorCodec.Cursor cursor = CursorCodec.decode(after);
+            users = userRepository.searchPageAfter("%"+keyword+"%", cursor.sortKey(), cursor.id(), pageable);
         }
+        log.info("{} users found. with query '{}'", users.getNumberOfElements(), keyword);
+        return toCursorPage(users);
+    }
+
+    // PRIVATE METHODS
 
-        if(!user.getUsername().equals(username) && userRepository.existsByUsername(username)){
-                errors.add(new FieldError("username", "Username is already in use"));
+    private @NotNull CursorPageResponseDTO<UserResponseDTO> toCursorPage(@NotNull Slice<UserView> users) {
+        List<UserView> content = users.getContent();
+        String next = null;
+        if (users.hasNext() && !content.isEmpty()) {
+            UserView last = content.get(content.size() - 1);
+            next = CursorCodec.encode(last.username(), last.id());
         }
+        return new CursorPageResponseDTO<>(content.stream().map(Mappers::from).toList(), next);
+    }
 
-        if(!user.getProfile().getPersonalIdentificationNumber().equals(personalIdentificationNumber) && profileRepository.existsByPersonalIdentificationNumber(personalIdentificationNumber)){
-                errors.add(new FieldError("personalIdentificationNumber", "PersonalIdentificationNumber is already in use"));
+    private void checkFieldUniquenessBeforeSave(String email, String username, String personalIdentificationNumber) {
+        List<FieldError> errors = uniquenessChecker.findConflicts(username, email, personalIdentificationNumber);
+        if(!errors.isEmpty()){
+            throw new FieldValidationException(errors, UNIQUENESS_PROBLEM);
         }
+    }
 
+    private void checkFieldUniquenessBeforeUpdate(@NotNull User user, String email, String username, String personalIdentificationNumber) {
+        // only the values that change are looked up
+        List<FieldError> errors = uniquenessChecker.findConflicts(
+                user.getUsername().equals(username) ? null : username,
+                user.getEmail().equals(email) ? null : email,
+                user.getProfile().getPersonalIdentificationNumber().equals(personalIdentificationNumber) ? null : personalIdentificationNumber);
         if(!errors.isEmpty()){
-            throw new FieldValidationException(errors, "problem of uniqueness of e-mail, personal identification number or username fields");
+            throw new FieldValidationException(errors, UNIQUENESS_PROBLEM);
+        }
+    }
+
+    /**
+     * Writes the user right away, so that a unique constraint violated by a concurrent write is reported like
+     * the pre-check would have, then records its values as taken.
+     */
+    private User saveUniqueFields(User user, String username, String email, String personalIdentificationNumber) {
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            List<FieldError> errors = uniquenessChecker.findConflictsInNewTransaction(username, email, personalIdentificationNumber);
+            if (errors.isEmpty()) {
+                throw e;
+            }
+            throw new FieldValidationException(errors, UNIQUENESS_PROBLEM);
         }
+        uniquenessChecker.record(username, email, personalIdentificationNumber);
+        return savedUser;
     }
 
     private void updateUserField(@NotNull User user, @NotNull UserRequestDTO userRequestDTO) {
@@ -217,8 +289,8 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow( () -> new UserNotFoundException(String.format("user with id '%s' not found", id)));
     }
 
-    private Role findRoleById(Long id) {
-        return roleRepository.findById(id)
+    private RoleResponseDTO findRoleById(Long id) {
+        return roleCatalog.findById(id)
                 .orElseThrow( () -> new RoleNotFoundException(String.format("role with id '%s' not found", id)));
     }
 
@@ -0,0 +1,220 @@
+package org.mounanga.securityservice.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.exception.FieldError;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Tells which of a username, an email and a personal identification number are already taken. A Bloom filter
+ * per field, built at startup and fed with every value written by this node, proves most values free without
+ * any query; the values it cannot vouch for are looked up together in one query. Writes by other nodes are
+ * only picked up by the periodic rebuild, so the unique constraints of the tables stay the final arbiter.
+ */
+@Slf4j
+@Component
+public class UserUniquenessChecker {
+
+    public static final String USERNAME = "username";
+    public static final String EMAIL = "email";
+    public static final String PERSONAL_IDENTIFICATION_NUMBER = "personalIdentificationNumber";
+
+    private final UserRepository userRepository;
+    private final ProfileRepository profileRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate newTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final Counter filterHits;
+    private final Counter databaseLookups;
+    private final Counter falsePositives;
+    private volatile Filters filters;
+    // filters being rebuilt: values written meanwhile go to both, so that the swap loses none of them
+    private volatile Filters building;
+
+    @Autowired
+    public UserUniquenessChecker(UserRepository userRepository, ProfileRepository profileRepository, PlatformTransactionManager transactionManager,
+                                 @NotNull ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this(userRepository, profileRepository, transactionManager, properties.getUniquenessExpectedInsertions(),
+                properties.getUniquenessFalsePositiveProbability(), meterRegistry);
+    }
+
+    public UserUniquenessChecker(UserRepository userRepository, ProfileRepository profileRepository, PlatformTransactionManager transactionManager,
+                                 long expectedInsertions, double falsePositiveProbability, @NotNull MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.profileRepository = profileRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filterHits = Counter.builder("user.uniqueness.lookups").tag("tier", "filter").register(meterRegistry);
+        this.databaseLookups = Counter.builder("user.uniqueness.lookups").tag("tier", "database").register(meterRegistry);
+        this.falsePositives = Counter.builder("user.uniqueness.false-positives").register(meterRegistry);
+    }
+
+    /**
+     * @param username                     {@code null} when it does not have to be checked
+     * @param email                        {@code null} when it does not have to be checked
+     * @param personalIdentificationNumber {@code null} when it does not have to be checked
+     * @return one error per value already taken, empty when all of them are free
+     */
+    public List<FieldError> findConflicts(String username, String email, String personalIdentificationNumber) {
+        if (username == null && email == null && personalIdentificationNumber == null) {
+            return List.of();
+        }
+        Filters current = filters;
+        String maybeUsername = current == null || mightExist(current.usernames(), username) ? username : null;
+        String maybeEmail = current == null || mightExist(current.emails(), email) ? email : null;
+        String maybePersonalIdentificationNumber = current == null || mightExist(current.personalIdentificationNumbers(), personalIdentificationNumber)
+                ? personalIdentificationNumber : null;
+        if (maybeUsername == null && maybeEmail == null && maybePersonalIdentificationNumber == null) {
+            filterHits.increment();
+            return List.of();
+        }
+        databaseLookups.increment();
+        List<FieldError> errors = query(maybeUsername, maybeEmail, maybePersonalIdentificationNumber);
+        if (current != null && errors.isEmpty()) {
+            falsePositives.increment();
+        }
+        return errors;
+    }
+
+    /**
+     * Same as {@link #findConflicts} against the database only, in a transaction of its own: meant to explain a
+     * unique constraint violation, once the transaction that hit it can no longer run queries.
+     */
+    public List<FieldError> findConflictsInNewTransaction(String username, String email, String personalIdentificationNumber) {
+        List<FieldError> errors = newTransaction.execute(status -> query(username, email, personalIdentificationNumber));
+        return errors == null ? List.of() : errors;
+    }
+
+    /**
+     * @return {@code false} when the value is certainly free, {@code true} when it has to be looked up
+     */
+    public boolean mightExist(@NotNull String field, String value) {
+        Filters current = filters;
+        if (current == null) {
+            return value != null;
+        }
+        return switch (field) {
+            case USERNAME -> mightExist(current.usernames(), value);
+            case EMAIL -> mightExist(current.emails(), value);
+            case PERSONAL_IDENTIFICATION_NUMBER -> mightExist(current.personalIdentificationNumbers(), value);
+            default -> throw new IllegalArgumentException("Unknown field " + field);
+        };
+    }
+
+    /**
+     * Records the values of a user written by this node.
+     */
+    public void record(String username, String email, String personalIdentificationNumber) {
+        // building is read first: once it is cleared, filters already holds the rebuilt ones
+        Filters next = building;
+        if (next != null) {
+            next.put(username, email, personalIdentificationNumber);
+        }
+        Filters current = filters;
+        if (current != null) {
+            current.put(username, email, personalIdentificationNumber);
+        }
+    }
+
+    /**
+     * Builds the filters from the tables and swaps them in, sized for twice the current number of users when
+     * they outgrew the expected number.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${application.users.uniqueness.rebuild-interval}", initialDelayString = "${application.users.uniqueness.rebuild-interval}")
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        long users = userRepository.count();
+        Filters next = new Filters(Math.max(expectedInsertions, users * 2), falsePositiveProbability);
+        building = next;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                fill(next.usernames(), userRepository::streamUsernames);
+                fill(next.emails(), userRepository::streamEmails);
+                fill(next.personalIdentificationNumbers(), profileRepository::streamPersonalIdentificationNumbers);
+            });
+            filters = next;
+        } finally {
+            building = null;
+        }
+        log.info("uniqueness filters built for {} users in {} ms", users, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private List<FieldError> query(String username, String email, String personalIdentificationNumber) {
+        if (username == null && email == null && personalIdentificationNumber == null) {
+            return List.of();
+        }
+        List<String> fields = userRepository.findFieldsInUse(username, email, personalIdentificationNumber);
+        List<FieldError> errors = new ArrayList<>();
+        if (fields.contains(USERNAME)) {
+            errors.add(new FieldError(USERNAME, "Username is already in use"));
+        }
+        if (fields.contains(EMAIL)) {
+            errors.add(new FieldError(EMAIL, "Email is already in use"));
+        }
+        if (fields.contains(PERSONAL_IDENTIFICATION_NUMBER)) {
+            errors.add(new FieldError(PERSONAL_IDENTIFICATION_NUMBER, "PersonalIdentificationNumber is already in use"));
+        }
+        return errors;
+    }
+
+    private static void fill(@NotNull BloomFilter filter, @NotNull Supplier<Stream<String>> values) {
+        try (Stream<String> stream = values.get()) {
+            stream.forEach(value -> put(filter, value));
+        }
+    }
+
+    private static boolean mightExist(@NotNull BloomFilter filter, String value) {
+        return value != null && filter.mightContain(normalize(value));
+    }
+
+    private static void put(@NotNull BloomFilter filter, String value) {
+        if (value != null) {
+            filter.put(normalize(value));
+        }
+    }
+
+    // MySQL compares with a case-insensitive collation: a filter keyed on the lower case never misses a collision
+    private static @NotNull String normalize(@NotNull String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails, BloomFilter personalIdentificationNumbers) {
+
+        Filters(long expectedInsertions, double falsePositiveProbability) {
+            this(new BloomFilter(expectedInsertions, falsePositiveProbability), new BloomFilter(expectedInsertions, falsePositiveProbability),
+                    new BloomFilter(expectedInsertions, falsePositiveProbability));
+        }
+
+        void put(String username, String email, String personalIdentificationNumber) {
+            UserUniquenessChecker.put(usernames, username);
+            UserUniquenessChecker.put(emails, email);
+            UserUniquenessChecker.put(personalIdentificationNumbers, personalIdentificationNumber);
+        }
+    }
+}
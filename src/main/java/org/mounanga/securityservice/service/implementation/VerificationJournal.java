@@ -0,0 +1,139 @@
+package org.mounanga.securityservice.service.implementation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.entity.Verification;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Append-only file of the changes made to the in-memory verification store, one tab-separated line each,
+ * replayed at startup so that outstanding codes survive a restart. Lines are flushed to the operating system
+ * on every change, which covers a process restart but not a power loss. The file is rewritten as a snapshot
+ * of the live entries at startup and whenever it grows well past them.
+ */
+@Slf4j
+class VerificationJournal implements Closeable {
+
+    private static final String PUT = "P";
+    private static final String DELETE = "D";
+    private static final String ATTEMPT = "A";
+    private static final int MIN_COMPACTION_LINES = 1000;
+
+    private final Path path;
+    private final ToLongFunction<Verification> expiresAt;
+    private BufferedWriter writer;
+    private int linesSinceSnapshot;
+
+    VerificationJournal(@NotNull Path path, @NotNull ToLongFunction<Verification> expiresAt) {
+        this.path = path;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @param fromEpochMillis turns the stored expiry back into the entity field
+     * @return the verifications recorded in the file, in insertion order
+     */
+    List<Verification> replay(@NotNull Function<Long, LocalDateTime> fromEpochMillis) {
+        Map<String, Verification> verifications = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        try {
+            for (String line : Files.readAllLines(path, UTF_8)) {
+                String[] fields = line.split("\t", -1);
+                try {
+                    switch (fields[0]) {
+                        case PUT -> verifications.put(fields[1], Verification.builder()
+                                .id(fields[1])
+                                .email(fields[2])
+                                .codeHash(fields[3])
+                                .expires(fromEpochMillis.apply(Long.parseLong(fields[4])))
+                                .attempts(Integer.parseInt(fields[5]))
+                                .build());
+                        case DELETE -> verifications.remove(fields[1]);
+                        case ATTEMPT -> verifications.values().stream()
+                                .filter(verification -> verification.getEmail().equals(fields[1]))
+                                .forEach(verification -> verification.setAttempts(verification.getAttempts() + 1));
+                        default -> log.warn("Unknown verification journal record ignored");
+                    }
+                } catch (RuntimeException e) {
+                    // a line cut short by a crash: everything before it is still valid
+                    log.warn("Corrupted verification journal line ignored");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the verification journal " + path, e);
+        }
+        return new ArrayList<>(verifications.values());
+    }
+
+    void put(@NotNull Verification verification) {
+        append(String.join("\t", PUT, verification.getId(), verification.getEmail(), verification.getCodeHash(),
+                String.valueOf(expiresAt.applyAsLong(verification)), String.valueOf(verification.getAttempts())));
+    }
+
+    void delete(@NotNull Verification verification) {
+        append(String.join("\t", DELETE, verification.getId()));
+    }
+
+    void attempt(@NotNull String email) {
+        append(String.join("\t", ATTEMPT, email));
+    }
+
+    boolean needsCompaction(int liveEntries) {
+        return linesSinceSnapshot > Math.max(MIN_COMPACTION_LINES, liveEntries * 4);
+    }
+
+    /**
+     * Replaces the file with one line per live verification.
+     */
+    void snapshot(@NotNull Collection<Verification> verifications) {
+        try {
+            close();
+            Path snapshot = path.resolveSibling(path.getFileName() + ".snapshot");
+            try (BufferedWriter snapshotWriter = Files.newBufferedWriter(snapshot, UTF_8)) {
+                writer = snapshotWriter;
+                verifications.forEach(this::put);
+            }
+            Files.move(snapshot, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writer = Files.newBufferedWriter(path, UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            linesSinceSnapshot = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the verification journal " + path, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void append(String line) {
+        try {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+            linesSinceSnapshot++;
+        } catch (IOException e) {
+            // the store keeps working from memory, only durability is lost
+            log.error("Unable to append to the verification journal: {}", e.getMessage());
+        }
+    }
+}
@@ -2,20 +2,24 @@ package org.mounanga.securityservice.service.implementation;
 
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
 import org.mounanga.securityservice.dto.MailDTO;
 import org.mounanga.securityservice.dto.ResetPasswordRequestDTO;
 import org.mounanga.securityservice.dto.VerificationRequestDTO;
 import org.mounanga.securityservice.entity.User;
 import org.mounanga.securityservice.entity.Verification;
 import org.mounanga.securityservice.exception.UserNotFoundException;
+import org.mounanga.securityservice.exception.VerificationAttemptsExceededException;
 import org.mounanga.securityservice.exception.VerificationCodeExpiredException;
 import org.mounanga.securityservice.exception.VerificationNotFoundException;
 import org.mounanga.securityservice.repository.UserRepository;
-import org.mounanga.securityservice.repository.VerificationRepository;
+import org.mounanga.securityservice.security.VerificationCodeGenerator;
+import org.mounanga.securityservice.security.VerificationCodeHasher;
 import org.mounanga.securityservice.service.VerificationService;
-import org.mounanga.securityservice.util.CodeGenerator;
+import org.mounanga.securityservice.service.VerificationStore;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
@@ -23,44 +27,54 @@ import java.time.LocalDateTime;
 @Service
 public class VerificationServiceImpl implements VerificationService {
 
-    private final VerificationRepository verificationRepository;
+    private final VerificationStore verificationStore;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final MailingService mailingService;
+    private final VerificationCodeGenerator codeGenerator;
+    private final VerificationCodeHasher codeHasher;
+    private final ApplicationProperties properties;
 
-    public VerificationServiceImpl(VerificationRepository verificationRepository, UserRepository userRepository, PasswordEncoder passwordEncoder, MailingService mailingService) {
-        this.verificationRepository = verificationRepository;
+    public VerificationServiceImpl(VerificationStore verificationStore, UserRepository userRepository, PasswordEncoder passwordEncoder, MailingService mailingService, VerificationCodeGenerator codeGenerator, VerificationCodeHasher codeHasher, ApplicationProperties properties) {
+        this.verificationStore = verificationStore;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.mailingService = mailingService;
+        this.codeGenerator = codeGenerator;
+        this.codeHasher = codeHasher;
+        this.properties = properties;
     }
 
+    @Transactional
     @Override
     public void requestVerification(@NotNull VerificationRequestDTO verificationRequestDTO) {
         log.info("Inside requestVerification()");
         User user = getUserByEmail(verificationRequestDTO.email());
 
+        String code = codeGenerator.next();
         Verification verification = new Verification();
-        verification.setCode(CodeGenerator.generateVerificationCode());
+        verification.setCodeHash(codeHasher.hash(code));
         verification.setEmail(user.getEmail());
         verification.setExpires(LocalDateTime.now().plusMinutes(30));
-        Verification savedVerification = verificationRepository.save(verification);
-        sendVerificationEmail(savedVerification);
+        verification.setAttempts(0);
+        verificationStore.save(verification);
+        sendVerificationEmail(user.getEmail(), code);
         log.info("Verification sent successful");
     }
 
+    // a miss must still count as an attempt
+    @Transactional(noRollbackFor = {VerificationNotFoundException.class, VerificationAttemptsExceededException.class})
     @Override
     public void resetPassword(@NotNull ResetPasswordRequestDTO resetPasswordRequestDTO) {
         log.info("Inside resetPassword()");
-        Verification verification = verificationRepository.findByCodeAndEmail(
-                resetPasswordRequestDTO.code(), resetPasswordRequestDTO.email()
-        ).orElseThrow(() -> new VerificationNotFoundException("verification code not found"));
+        Verification verification = findVerification(resetPasswordRequestDTO.email(), resetPasswordRequestDTO.code());
 
         if(verification.getExpires().isBefore(LocalDateTime.now())) {
             throw new VerificationCodeExpiredException("code expired. Please try ask for another verification's code");
         }
-        verificationRepository.delete(verification);
+        // the memory store does not roll back: the code is only spent once the password is changed
         updatePassword(resetPasswordRequestDTO.email(), resetPasswordRequestDTO.newPassword());
+        verificationStore.delete(verification);
         log.info("Password reset successful");
         sendPasswordUpdatedEmail(resetPasswordRequestDTO.email());
     }
@@ -75,9 +89,23 @@ public class VerificationServiceImpl implements VerificationService {
         return userRepository.findByEmail(email).orElseThrow(() -> new UserNotFoundException("User not found"));
     }
 
-    private void sendVerificationEmail(@NotNull Verification verification) {
-        String body = String.format("Hello, here is your verification code: %s. it expires in 30 minutes", verification.getCode());
-        MailDTO mail = new MailDTO(verification.getEmail(), "Verification code", body);
+    private @NotNull Verification findVerification(String email, String code) {
+        int maxAttempts = properties.getVerificationMaxAttempts();
+        // every guess, right or wrong, is counted before the code is compared
+        if (!verificationStore.tryAttempt(email, maxAttempts)) {
+            if (verificationStore.isLocked(email, maxAttempts)) {
+                throw new VerificationAttemptsExceededException("too many wrong codes. Please ask for another verification's code");
+            }
+            throw new VerificationNotFoundException("verification code not found");
+        }
+        String codeHash = code == null ? "" : codeHasher.hash(code);
+        return verificationStore.find(email, codeHash)
+                .orElseThrow(() -> new VerificationNotFoundException("verification code not found"));
+    }
+
+    private void sendVerificationEmail(String email, String code) {
+        String body = String.format("Hello, here is your verification code: %s. it expires in 30 minutes", code);
+        MailDTO mail = new MailDTO(email, "Verification code", body);
         mailingService.send(mail);
     }
 
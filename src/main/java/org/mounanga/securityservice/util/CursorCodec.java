@@ -0,0 +1,38 @@
+package org.mounanga.securityservice.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.mounanga.securityservice.exception.InvalidCursorException;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Opaque {@code after} tokens of the cursor endpoints: the sort key and the id of the last row of a page,
+ * URL-safe base64 encoded. Clients must hand them back untouched.
+ */
+public class CursorCodec {
+
+    private static final char SEPARATOR = '\n';
+
+    private CursorCodec() {
+        super();
+    }
+
+    public static @NotNull String encode(@NotNull String sortKey, long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((String.valueOf(id) + SEPARATOR + sortKey).getBytes(UTF_8));
+    }
+
+    public static @NotNull Cursor decode(@NotNull String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new Cursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("invalid pagination cursor");
+        }
+    }
+
+    public record Cursor(String sortKey, long id) {
+    }
+}
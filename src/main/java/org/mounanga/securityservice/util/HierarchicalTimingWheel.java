@@ -0,0 +1,134 @@
+package org.mounanga.securityservice.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: scheduling and cancelling a timeout are O(1), and advancing the clock only
+ * visits the buckets whose time has come, never the pending timeouts themselves. Level {@code i} has
+ * {@code wheelSize} buckets of {@code tick * wheelSize^i} milliseconds each; a timeout is placed on the
+ * lowest level that covers its delay and moves down one level each time the bucket it sits in comes round.
+ * Not thread-safe: callers serialize access.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Deque<Timeout>[][] levels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("The wheel size must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = new Deque[levelCount][wheelSize];
+        for (Deque<Timeout>[] level : levels) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                level[slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * @return the handle to cancel the timeout with; a deadline already past fires on the next tick
+     */
+    public @NotNull Timeout schedule(T value, long deadlineMillis) {
+        Timeout timeout = new Timeout(value, Math.max(deadlineMillis / tickMillis, currentTick + 1));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the clock to {@code nowMillis}, handing every timeout due by then to {@code onExpire}.
+     */
+    public void advance(long nowMillis, @NotNull Consumer<T> onExpire) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Deque<Timeout> bucket = levels[0][(int) (currentTick & mask)];
+            Timeout timeout;
+            while ((timeout = bucket.poll()) != null) {
+                if (timeout.cancelled) {
+                    continue;
+                }
+                size--;
+                timeout.expired = true;
+                onExpire.accept(timeout.value);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < levels.length; level++) {
+            long lowerSpan = 1L << (bits * level);
+            if ((currentTick & (lowerSpan - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >> (bits * level)) & mask);
+            Deque<Timeout> bucket = levels[level][slot];
+            // a timeout beyond the top level may land in the very bucket being emptied
+            levels[level][slot] = new ArrayDeque<>();
+            for (Timeout timeout : bucket) {
+                if (!timeout.cancelled) {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    private void place(@NotNull Timeout timeout) {
+        long delay = Math.max(timeout.deadlineTick - currentTick, 0L);
+        int level = 0;
+        while (level < levels.length - 1 && delay >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        // beyond the top level the timeout is simply placed again when its bucket comes round
+        levels[level][(int) ((timeout.deadlineTick >> (bits * level)) & mask)].add(timeout);
+    }
+
+    /**
+     * Handle on a scheduled timeout.
+     */
+    public final class Timeout {
+
+        private final T value;
+        private final long deadlineTick;
+        private boolean cancelled;
+        private boolean expired;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancelled timeouts stay in their bucket and are dropped when it is visited.
+         */
+        public void cancel() {
+            if (!cancelled && !expired) {
+                cancelled = true;
+                size--;
+            }
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+}
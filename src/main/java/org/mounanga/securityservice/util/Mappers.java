@@ -34,6 +34,28 @@ public class Mappers {
     }
 
 
+    public static UserResponseDTO from(final UserView user) {
+        if(user == null){
+            return null;
+        }
+        ProfileResponseDTO profile = user.profileId() == null ? null : ProfileResponseDTO.builder()
+                .id(user.profileId())
+                .firstname(user.firstname())
+                .lastname(user.lastname())
+                .placeOfBirth(user.placeOfBirth())
+                .dateOfBirth(user.dateOfBirth())
+                .nationality(user.nationality())
+                .gender(user.gender())
+                .personalIdentificationNumber(user.personalIdentificationNumber())
+                .createdDate(user.profileCreatedDate())
+                .createdBy(user.profileCreatedBy())
+                .lastModifiedDate(user.profileLastModifiedDate())
+                .lastModifiedBy(user.profileLastModifiedBy())
+                .build();
+        return new UserResponseDTO(user.id(), user.username(), user.email(), user.enabled(), user.createdDate(), user.createdBy(),
+                user.lastModifiedDate(), user.lastModifiedBy(), user.passwordMustBeModified(), profile);
+    }
+
     public static @NotNull User from(final @NotNull UserRequestDTO userRequestDTO) {
         final User user = new User();
         user.setUsername(userRequestDTO.getUsername());
@@ -41,7 +63,9 @@ public class Mappers {
         user.setPassword(userRequestDTO.getPassword());
         user.setPasswordMustBeModified(Boolean.TRUE);
         user.setEnabled(Boolean.TRUE);
-        user.setProfile(profileFromUserRequestDTO(userRequestDTO));
+        final Profile profile = profileFromUserRequestDTO(userRequestDTO);
+        profile.setUser(user);
+        user.setProfile(profile);
         return user;
     }
 
@@ -0,0 +1,50 @@
+package org.mounanga.securityservice.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Reuses instances that are costly to build and cannot be shared, such as an initialized {@code Mac}. A
+ * platform thread keeps its own instance, as with a {@link ThreadLocal}. A virtual thread usually lives for a
+ * single request, so a thread local would be built again for every request: virtual threads borrow from a
+ * bounded pool instead, and an instance returned to a full pool is dropped.
+ */
+public final class ObjectPool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> perThread;
+    private final ArrayBlockingQueue<T> pool;
+
+    public ObjectPool(@NotNull Supplier<T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ObjectPool(@NotNull Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.perThread = ThreadLocal.withInitial(factory);
+        this.pool = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @return an instance only the calling thread uses until it is given back with {@link #release(Object)}
+     */
+    public @NotNull T acquire() {
+        if (!Thread.currentThread().isVirtual()) {
+            return perThread.get();
+        }
+        T instance = pool.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    public void release(@NotNull T instance) {
+        if (Thread.currentThread().isVirtual()) {
+            pool.offer(instance);
+        }
+    }
+
+    public int pooled() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,66 @@
+-- Schema of the released version, as created by spring.jpa.hibernate.ddl-auto=update from its entities.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate) and skip it;
+-- V2 brings both kinds of database to the current entities.
+
+create table role (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    description varchar(255) not null,
+    created_date datetime(6),
+    created_by varchar(255),
+    last_modified_date datetime(6),
+    last_modified_by varchar(255),
+    primary key (id),
+    constraint uk_role_name unique (name)
+) engine=InnoDB;
+
+create table user (
+    id bigint not null auto_increment,
+    username varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    enabled bit not null,
+    created_date datetime(6),
+    created_by varchar(255),
+    last_modified_date datetime(6),
+    last_modified_by varchar(255),
+    password_must_be_modified bit not null,
+    primary key (id),
+    constraint uk_user_username unique (username),
+    constraint uk_user_email unique (email)
+) engine=InnoDB;
+
+create table profile (
+    id bigint not null auto_increment,
+    firstname varchar(255) not null,
+    lastname varchar(255) not null,
+    place_of_birth varchar(255) not null,
+    date_of_birth date not null,
+    nationality varchar(255) not null,
+    gender enum ('M','F') not null,
+    personal_identification_number varchar(255) not null,
+    created_date datetime(6),
+    created_by varchar(255),
+    last_modified_date datetime(6),
+    last_modified_by varchar(255),
+    user_id bigint not null,
+    primary key (id),
+    constraint uk_profile_personal_identification_number unique (personal_identification_number),
+    constraint uk_profile_user_id unique (user_id),
+    constraint fk_profile_user foreign key (user_id) references user (id)
+) engine=InnoDB;
+
+create table user_role (
+    user_id bigint not null,
+    role_id bigint not null,
+    constraint fk_user_role_user foreign key (user_id) references user (id),
+    constraint fk_user_role_role foreign key (role_id) references role (id)
+) engine=InnoDB;
+
+create table verification (
+    id varchar(255) not null,
+    code varchar(255) not null,
+    expires datetime(6) not null,
+    email varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,39 @@
+-- Tables and columns the entities gained since the released version.
+
+-- ids of users, profiles and roles now come from blocks of this table; IdGeneratorInitializer moves each row
+-- past the ids the identity columns handed out, the auto_increment left on the columns is no longer used
+create table id_generator (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+) engine=InnoDB;
+
+-- only the hash of a code is stored now, and the plaintext ones cannot be hashed here: the pending codes, valid
+-- for 30 minutes at most, are dropped and have to be asked for again
+delete from verification;
+alter table verification drop column code;
+alter table verification add column code_hash varchar(64) not null;
+alter table verification add column attempts integer not null;
+create index idx_verification_email_code_hash on verification (email, code_hash);
+
+create table mail_outbox (
+    id bigint not null auto_increment,
+    recipient varchar(255) not null,
+    subject varchar(255) not null,
+    body text not null,
+    status enum ('PENDING','DEAD') not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(1000),
+    created_date datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_mail_outbox_status_next_attempt on mail_outbox (status, next_attempt_at);
+
+create table scheduler_lease (
+    name varchar(64) not null,
+    owner varchar(255) not null,
+    locked_until datetime(6) not null,
+    primary key (name)
+) engine=InnoDB;
@@ -0,0 +1,14 @@
+-- Indexes for the queries that scanned their table. Secondary indexes are built online by InnoDB.
+
+-- verifications of an email still valid, and the chunked purge of expired ones (expires < now)
+create index idx_verification_email_expires on verification (email, expires);
+create index idx_verification_expires on verification (expires);
+
+-- UserRepository.search on first name and last name: seeks on prefix matches, and a narrower index than the
+-- table to scan for the infix (like '%keyword%') ones
+create index idx_profile_lastname_firstname on profile (lastname, firstname);
+create index idx_profile_firstname on profile (firstname);
+
+-- user_role read from both sides: the roles of a user (login, batch fetch) and the users of a role
+create index idx_user_role_user_role on user_role (user_id, role_id);
+create index idx_user_role_role_user on user_role (role_id, user_id);
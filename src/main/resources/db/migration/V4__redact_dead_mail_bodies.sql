@@ -0,0 +1,2 @@
+-- Dead mails are never sent again: drop the bodies kept so far, with the verification codes they carry.
+update mail_outbox set body = '[redacted]' where status = 'DEAD';
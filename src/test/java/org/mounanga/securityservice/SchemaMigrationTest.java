@@ -0,0 +1,86 @@
+package org.mounanga.securityservice;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations on H2 in MySQL mode, with Hibernate validating the entities against the result. H2 is
+ * not MySQL: this catches a migration out of step with the entities, not DDL that only MySQL would refuse.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaMigrationTest {
+
+    private static final String COLUMNS = "select table_name, column_name, data_type, is_nullable from information_schema.columns "
+            + "where table_schema = 'public' and table_name <> 'flyway_schema_history' order by table_name, column_name";
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testEmptyDatabaseIsMigratedToTheEntities() {
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(flyway.info().all().length, flyway.info().applied().length);
+    }
+
+    @Test
+    void testReleasedDatabaseIsUpgradedToTheEntities() {
+        DriverManagerDataSource released = new DriverManagerDataSource(
+                "jdbc:h2:mem:released;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(released);
+        // the schema ddl-auto=update created for the released version, with its data
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(released);
+        jdbcTemplate.update("insert into user (username, email, password, enabled, password_must_be_modified) "
+                + "values ('jdoe', 'jdoe@mail.com', 'encoded', true, false)");
+        jdbcTemplate.update("insert into role (name, description) values ('ADMIN', 'administrator')");
+        jdbcTemplate.update("insert into user_role (user_id, role_id) values (1, 1)");
+        jdbcTemplate.update("insert into verification (id, code, expires, email) "
+                + "values ('id', '123456', current_timestamp, 'jdoe@mail.com')");
+
+        Flyway.configure()
+                .dataSource(released)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        List<Map<String, Object>> expected = new JdbcTemplate(dataSource).queryForList(COLUMNS);
+        assertEquals(expected, jdbcTemplate.queryForList(COLUMNS));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from user_role", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from verification", Integer.class));
+    }
+}
@@ -0,0 +1,75 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.mounanga.securityservice.security.VerificationCodeGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one six-digit verification code under 8 threads: a new {@link SecureRandom} and one draw per digit
+ * on every call (the former {@code CodeGenerator}) against the shared DRBG read in bulk, on the benchmark
+ * threads or on a new virtual thread per code as in the virtual-thread mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadModelBenchmark.ThreadModel threadModel;
+
+    private VerificationCodeGenerator generator;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        SecureRandom random = SecureRandom.getInstance("DRBG", DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        generator = new VerificationCodeGenerator(6, "0123456789", 0, random);
+    }
+
+    @Benchmark
+    public String newSecureRandomPerCode() throws Exception {
+        return onThread(CodeGeneratorBenchmark::newSecureRandomCode);
+    }
+
+    @Benchmark
+    public String sharedBulkRandom() throws Exception {
+        return onThread(generator::generate);
+    }
+
+    private static String newSecureRandomCode() {
+        SecureRandom random = new SecureRandom();
+        StringBuilder code = new StringBuilder(6);
+        for (int i = 0; i < 6; i++) {
+            code.append(random.nextInt(10));
+        }
+        return code.toString();
+    }
+
+    private <T> T onThread(Callable<T> task) throws Exception {
+        if (threadModel == ThreadModelBenchmark.ThreadModel.PLATFORM) {
+            return task.call();
+        }
+        // one virtual thread per call, as with spring.threads.virtual.enabled: nothing survives in thread locals
+        FutureTask<T> future = new FutureTask<>(task);
+        Thread.ofVirtual().start(future);
+        return future.get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CodeGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one 10-row page of a 1M-row user table, on an in-memory H2 database in MySQL mode, at page 1
+ * and at page 10,000: offset pagination with its count query (what {@code Page} costs) against the keyset
+ * seek on {@code (username, id)} used by the cursor endpoints. The keyset page should cost the same wherever
+ * it is; the offset page grows with the offset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CursorPaginationBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"1", "10000"})
+    public int page;
+
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement count;
+    private PreparedStatement keysetPage;
+    private String afterUsername;
+    private long afterId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:pagination" + page + ";MODE=MySQL;NON_KEYWORDS=USER", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table user (id bigint primary key, username varchar(255) not null, email varchar(255) not null)");
+            statement.execute("create unique index uk_user_username on user (username, id)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into user values (?, ?, ?)")) {
+            for (int i = 0; i < USERS; i++) {
+                insert.setLong(1, i + 1L);
+                insert.setString(2, username(i));
+                insert.setString(3, username(i) + "@mail.com");
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+        offsetPage = connection.prepareStatement("select id, username, email from user order by username, id limit ? offset ?");
+        count = connection.prepareStatement("select count(*) from user");
+        keysetPage = connection.prepareStatement("select id, username, email from user where username > ? or (username = ? and id > ?) "
+                + "order by username, id limit ?");
+        // the last row of the previous page, as the client would hand it back in the cursor
+        int lastOfPreviousPage = (page - 1) * PAGE_SIZE - 1;
+        afterUsername = lastOfPreviousPage < 0 ? "" : username(lastOfPreviousPage);
+        afterId = lastOfPreviousPage < 0 ? 0 : lastOfPreviousPage + 1L;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long offsetWithCount() throws SQLException {
+        offsetPage.setInt(1, PAGE_SIZE);
+        offsetPage.setInt(2, (page - 1) * PAGE_SIZE);
+        long last = read(offsetPage);
+        try (ResultSet resultSet = count.executeQuery()) {
+            resultSet.next();
+            return last + resultSet.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public long keyset() throws SQLException {
+        keysetPage.setString(1, afterUsername);
+        keysetPage.setString(2, afterUsername);
+        keysetPage.setLong(3, afterId);
+        keysetPage.setInt(4, PAGE_SIZE + 1);
+        return read(keysetPage);
+    }
+
+    private static long read(PreparedStatement statement) throws SQLException {
+        long last = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                last = resultSet.getLong(1);
+            }
+        }
+        return last;
+    }
+
+    private static String username(int i) {
+        return String.format("user%07d", i);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CursorPaginationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.mounanga.securityservice.SecurityServiceApplication;
+import org.mounanga.securityservice.dto.UserRequestDTO;
+import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.repository.RoleRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.util.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk creation of users with their profile and one role, {@value #USERS} per transaction, through the
+ * {@code CascadeType.ALL} graph. {@code table} is the pooled table generator the entities use, with JDBC
+ * batching; {@code identity} maps the ids back to identity columns, which forces one round trip per insert.
+ * Throughput is in users per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+    private static final int USERS = 500;
+
+    @Param({"table", "identity"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private RoleRepository roleRepository;
+    private TransactionTemplate transaction;
+    private Long roleId;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SecurityServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.jpa.properties.hibernate.generate_statistics=false");
+        if ("identity".equals(strategy)) {
+            builder.properties("spring.jpa.mapping-resources=benchmark/identity-ids.xml");
+        }
+        context = builder.run();
+        userRepository = context.getBean(UserRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        roleRepository = context.getBean(RoleRepository.class);
+        roleId = roleRepository.save(Role.builder().name("USER").description("User").build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public List<User> createUsers() {
+        return transaction.execute(status -> {
+            Role role = roleRepository.getReferenceById(roleId);
+            List<User> users = new ArrayList<>(USERS);
+            for (int i = 0; i < USERS; i++) {
+                int n = sequence++;
+                User user = Mappers.from(UserRequestDTO.builder()
+                        .username("user" + n)
+                        .email("user" + n + "@mail.com")
+                        .password("encoded")
+                        .firstname("John")
+                        .lastname("Doe")
+                        .placeOfBirth("Paris")
+                        .dateOfBirth(LocalDate.of(1990, 1, 1))
+                        .nationality("French")
+                        .gender(Gender.M)
+                        .personalIdentificationNumber("PIN-" + n)
+                        .build());
+                user.setRoles(new ArrayList<>(List.of(role)));
+                users.add(user);
+            }
+            List<User> saved = userRepository.saveAll(users);
+            userRepository.flush();
+            return saved;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdGenerationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
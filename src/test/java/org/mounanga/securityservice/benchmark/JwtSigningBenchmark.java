@@ -0,0 +1,97 @@
+package org.mounanga.securityservice.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.mounanga.securityservice.entity.Profile;
+import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.security.JwtService;
+import org.mounanga.securityservice.security.SigningKeys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens/sec of the login signing path: the previous implementation (HMAC key rebuilt and claims streamed on
+ * every call) against the pre-keyed engine behind {@link JwtService}, on the benchmark thread or on a new
+ * virtual thread per token as in the virtual-thread mode. Run with the GC profiler to read the bytes allocated
+ * per token ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    private static final String SECRET = "AaZzBbCcYyDdXxEeWwFf";
+    private static final long EXPIRATION = 604800000L;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadModelBenchmark.ThreadModel threadModel;
+
+    private User user;
+    private JwtService jwtService;
+
+    @Setup
+    public void setUp() {
+        Profile profile = Profile.builder().firstname("Brody").lastname("Gaudel").build();
+        user = User.builder()
+                .username("admin")
+                .profile(profile)
+                .roles(List.of(
+                        Role.builder().id(1L).name("ADMIN").build(),
+                        Role.builder().id(2L).name("USER").build(),
+                        Role.builder().id(3L).name("SUPER_ADMIN").build()))
+                .build();
+        jwtService = new JwtService(SigningKeys.hmac(SECRET));
+    }
+
+    @Benchmark
+    public String previousSigningPath() throws Exception {
+        return onThread(this::previousSign);
+    }
+
+    @Benchmark
+    public String preKeyedSigningEngine() throws Exception {
+        return onThread(() -> jwtService.generateToken(user, EXPIRATION));
+    }
+
+    private String previousSign() {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        Date expirationDate = new Date(System.currentTimeMillis() + EXPIRATION);
+        List<String> roles = user.getRoles().stream().map(Role::getName).toList();
+        return JWT.create()
+                .withSubject(user.getUsername())
+                .withArrayClaim("roles", roles.toArray(new String[0]))
+                .withClaim("fullName", user.getProfile().getFullName())
+                .withExpiresAt(expirationDate)
+                .sign(algorithm);
+    }
+
+    private <T> T onThread(Callable<T> task) throws Exception {
+        if (threadModel == ThreadModelBenchmark.ThreadModel.PLATFORM) {
+            return task.call();
+        }
+        // one virtual thread per call, as with spring.threads.virtual.enabled: nothing survives in thread locals
+        FutureTask<T> future = new FutureTask<>(task);
+        Thread.ofVirtual().start(future);
+        return future.get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtSigningBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
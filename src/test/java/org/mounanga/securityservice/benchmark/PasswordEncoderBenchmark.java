@@ -0,0 +1,59 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.mounanga.securityservice.enums.PasswordHashAlgorithm;
+import org.mounanga.securityservice.security.PasswordEncoders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes/sec per core of each password algorithm, with the work factor calibrated at setup exactly as at
+ * application startup. A single benchmark thread keeps the figure per core; multiply by the size of the
+ * password hashing pool to get the login capacity of a node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "Passw0rd!2024";
+
+    @Param({"BCRYPT", "ARGON2"})
+    public PasswordHashAlgorithm algorithm;
+
+    @Param({"100", "250"})
+    public long targetLatencyMillis;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = PasswordEncoders.calibrated(algorithm, targetLatencyMillis);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PasswordEncoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.mounanga.securityservice.SecurityServiceApplication;
+import org.mounanga.securityservice.dto.UserResponseDTO;
+import org.mounanga.securityservice.entity.Profile;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.util.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 50-user page of the user list, read through managed entities (the profile fetched by the list graph,
+ * both entities snapshotted for dirty checking) against the {@code UserView} projection, both mapped to
+ * {@link UserResponseDTO} in a read-only transaction. Run through {@link #main} to get the GC profiler:
+ * {@code gc.alloc.rate.norm} is the allocation per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final Pageable PAGE = PageRequest.of(3, 50);
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SecurityServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        ProfileRepository profileRepository = context.getBean(ProfileRepository.class);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < USERS; i++) {
+                User user = userRepository.save(User.builder()
+                        .username("user" + i)
+                        .email("user" + i + "@mail.com")
+                        .password("encoded")
+                        .enabled(true)
+                        .passwordMustBeModified(false)
+                        .build());
+                profileRepository.save(Profile.builder()
+                        .firstname("John")
+                        .lastname("Doe" + i)
+                        .placeOfBirth("Paris")
+                        .dateOfBirth(LocalDate.of(1990, 1, 1))
+                        .nationality("French")
+                        .gender(Gender.M)
+                        .personalIdentificationNumber("PIN-" + i)
+                        .user(user)
+                        .build());
+            }
+        });
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> entities() {
+        return readOnly.execute(status -> userRepository.findAll(PAGE).map(Mappers::from).getContent());
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> projection() {
+        return readOnly.execute(status -> userRepository.findAllViews(PAGE).map(Mappers::from).getContent());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProjectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,51 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.mounanga.securityservice.security.RateLimitPolicy;
+import org.mounanga.securityservice.security.TokenBucketLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one rate limit decision under contention: 16 threads hammering either a single bucket (the worst
+ * case, every CAS contended) or keys spread over many buckets. The budget is well under a microsecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int keys;
+
+    private TokenBucketLimiter limiter;
+    private String[] keyNames;
+
+    @Setup
+    public void setUp() {
+        limiter = new TokenBucketLimiter(RateLimitPolicy.parse("1000000/1"), 100_000);
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "10.0." + (i >> 8) + "." + (i & 0xFF);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire(keyNames[ThreadLocalRandom.current().nextInt(keys)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,63 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.mounanga.securityservice.SecurityServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to start and stop the application against an existing schema, depending on who owns it: {@code update}
+ * has Hibernate read the metadata of every table and alter what differs, {@code validate} has Flyway check its
+ * history table and Hibernate compare the entities with the columns. The warmup starts create the schema, the
+ * measured ones find it in place, as every node of a deploy does.
+ * <p>
+ * Each mode gets a scratch database of its own, {@code %s} in {@code benchmark.datasource.url} standing for the
+ * mode. By default that is an H2 file database in MySQL mode under {@code target/startup}, with the test
+ * profile: an in-memory one would be dropped whenever a context closes. That compares the work Hibernate and
+ * Flyway do, not MySQL metadata locks. On MySQL, with the {@code MYSQL_*} variables of
+ * the default profile:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SchemaStartupBenchmark -Dbenchmark.profile=default \
+ *     -Dbenchmark.datasource.url='jdbc:mysql://localhost:3306/startup_%s?createDatabaseIfNotExist=true'
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SchemaStartupBenchmark {
+
+    private static final String PROFILE = System.getProperty("benchmark.profile", "test");
+    private static final String URL = System.getProperty("benchmark.datasource.url",
+            "jdbc:h2:file:./target/startup/%s;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE");
+
+    @Param({"update", "validate"})
+    public String schema;
+
+    @Benchmark
+    public long startAndStop() {
+        // arguments, since the profile properties would override default properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SecurityServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(PROFILE)
+                .run("--spring.datasource.url=" + URL.formatted(schema),
+                        "--spring.jpa.hibernate.ddl-auto=" + schema,
+                        "--spring.flyway.enabled=" + "validate".equals(schema))) {
+            return context.getStartupDate();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SchemaStartupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
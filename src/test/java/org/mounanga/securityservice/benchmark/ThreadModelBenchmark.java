@@ -0,0 +1,101 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.*;
+
+/**
+ * Time to serve a wave of concurrent requests that spend most of their life blocked on the database, with
+ * the platform-thread model (a Tomcat-sized pool of 200 workers) and with one virtual thread per request.
+ * The database stand-in is a bounded connection pool in front of a fixed query latency, like HikariCP in
+ * front of MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    public enum ThreadModel { PLATFORM, VIRTUAL }
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadModel threadModel;
+
+    @Param({"1000", "5000", "10000"})
+    public int concurrentConnections;
+
+    @Param({"100"})
+    public int databaseConnections;
+
+    @Param({"5"})
+    public long queryMillis;
+
+    private ExecutorService executor;
+    private DatabaseStandIn database;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        executor = threadModel == ThreadModel.PLATFORM
+                ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+        database = new DatabaseStandIn(databaseConnections, queryMillis);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int serveWave() throws InterruptedException, ExecutionException {
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+        for (int i = 0; i < concurrentConnections; i++) {
+            int request = i;
+            completion.submit(() -> {
+                // two round trips per request, like a lookup followed by an update
+                database.query();
+                database.query();
+                return request;
+            });
+        }
+        int served = 0;
+        for (int i = 0; i < concurrentConnections; i++) {
+            completion.take().get();
+            served++;
+        }
+        return served;
+    }
+
+    static final class DatabaseStandIn {
+
+        private final Semaphore connections;
+        private final long queryMillis;
+
+        DatabaseStandIn(int connections, long queryMillis) {
+            this.connections = new Semaphore(connections, true);
+            this.queryMillis = queryMillis;
+        }
+
+        void query() throws InterruptedException {
+            connections.acquire();
+            try {
+                Thread.sleep(queryMillis);
+            } finally {
+                connections.release();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ThreadModelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package org.mounanga.securityservice.benchmark;
+
+import org.mounanga.securityservice.security.VerificationCodeHasher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a verification lookup as the number of outstanding verifications grows, on an in-memory H2
+ * database in MySQL mode: exact match on the {@code (email, code_hash)} index against the previous
+ * {@code like} predicates on unindexed columns. The indexed lookup should stay flat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VerificationLookupBenchmark {
+
+    @Param({"10000", "1000000", "3000000"})
+    public int outstandingVerifications;
+
+    private final VerificationCodeHasher codeHasher = new VerificationCodeHasher("benchmark-key");
+    private Connection connection;
+    private PreparedStatement indexedLookup;
+    private PreparedStatement likeLookup;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:verification" + outstandingVerifications + ";MODE=MySQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table verification (id varchar(36) primary key, code varchar(6), code_hash varchar(64) not null, "
+                    + "email varchar(255) not null, expires timestamp not null, attempts int not null)");
+            statement.execute("create index idx_verification_email_code_hash on verification (email, code_hash)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into verification values (?, ?, ?, ?, ?, 0)")) {
+            Timestamp expires = Timestamp.valueOf(LocalDateTime.now().plusMinutes(30));
+            for (int i = 0; i < outstandingVerifications; i++) {
+                String code = code(i);
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, code);
+                insert.setString(3, codeHasher.hash(code));
+                insert.setString(4, email(i));
+                insert.setTimestamp(5, expires);
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+        indexedLookup = connection.prepareStatement("select id, attempts from verification where email = ? and code_hash = ? limit 1");
+        likeLookup = connection.prepareStatement("select id from verification where email like ? and code like ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean indexedLookup() throws SQLException {
+        int i = ThreadLocalRandom.current().nextInt(outstandingVerifications);
+        indexedLookup.setString(1, email(i));
+        indexedLookup.setString(2, codeHasher.hash(code(i)));
+        try (ResultSet resultSet = indexedLookup.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    @Benchmark
+    public boolean previousLikeLookup() throws SQLException {
+        int i = ThreadLocalRandom.current().nextInt(outstandingVerifications);
+        likeLookup.setString(1, email(i));
+        likeLookup.setString(2, code(i));
+        try (ResultSet resultSet = likeLookup.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@mail.com";
+    }
+
+    private static String code(int i) {
+        return String.format("%06d", (i * 7919) % 1_000_000);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VerificationLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package org.mounanga.securityservice.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.entity.IdGenerators;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class IdGeneratorInitializerTest {
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private IdGeneratorInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        initializer = new IdGeneratorInitializer(jdbcTemplate);
+        // a user created while the id came from an identity column
+        jdbcTemplate.update("insert into user (id, username, email, password, enabled, password_must_be_modified) "
+                + "values (100000, 'legacy', 'legacy@mail.com', 'encoded', true, false)");
+    }
+
+    @Test
+    void testGeneratorIsMovedPastExistingIds() {
+        initializer.initialize();
+
+        assertEquals(100000 + IdGenerators.ALLOCATION_SIZE, nextValue(IdGenerators.USER));
+        assertTrue(nextValue(IdGenerators.ROLE) >= IdGenerators.ALLOCATION_SIZE);
+    }
+
+    @Test
+    void testGeneratorAheadOfTheTableIsLeftAlone() {
+        initializer.initialize();
+        jdbcTemplate.update("update " + IdGenerators.TABLE + " set " + IdGenerators.VALUE_COLUMN + " = 500000 where "
+                + IdGenerators.SEGMENT_COLUMN + " = ?", IdGenerators.USER);
+
+        initializer.initialize();
+
+        assertEquals(500000, nextValue(IdGenerators.USER));
+    }
+
+    private long nextValue(String segment) {
+        Long value = jdbcTemplate.queryForObject("select " + IdGenerators.VALUE_COLUMN + " from " + IdGenerators.TABLE + " where "
+                + IdGenerators.SEGMENT_COLUMN + " = ?", Long.class, segment);
+        assertNotNull(value);
+        return value;
+    }
+}
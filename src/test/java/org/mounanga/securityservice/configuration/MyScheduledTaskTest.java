@@ -0,0 +1,64 @@
+package org.mounanga.securityservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mounanga.securityservice.service.VerificationStore;
+import org.mounanga.securityservice.service.implementation.SchedulerLeaseManager;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class MyScheduledTaskTest {
+
+    @Mock
+    private VerificationStore verificationStore;
+
+    @Mock
+    private SchedulerLeaseManager leaseManager;
+
+    @Mock
+    private ApplicationProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MyScheduledTask task;
+
+    @BeforeEach
+    void setUp() {
+        when(properties.getVerificationPurgeChunkSize()).thenReturn(100);
+        when(properties.getVerificationPurgePause()).thenReturn(0L);
+        when(properties.getVerificationPurgeLease()).thenReturn(60_000L);
+        meterRegistry = new SimpleMeterRegistry();
+        task = new MyScheduledTask(verificationStore, leaseManager, properties, meterRegistry);
+    }
+
+    @Test
+    void testExpiredVerificationsArePurgedInChunks() {
+        when(leaseManager.tryAcquire(eq(MyScheduledTask.PURGE_LEASE), any(Duration.class))).thenReturn(true);
+        when(verificationStore.deleteExpired(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 42);
+
+        task.performTask();
+
+        verify(verificationStore, times(3)).deleteExpired(any(LocalDateTime.class), eq(100));
+        verify(leaseManager).release(MyScheduledTask.PURGE_LEASE);
+        assertEquals(242, meterRegistry.get("verification.purge.rows").counter().count());
+        assertEquals(1, meterRegistry.get("verification.purge.duration").timer().count());
+    }
+
+    @Test
+    void testPurgeIsSkippedWithoutTheLease() {
+        when(leaseManager.tryAcquire(eq(MyScheduledTask.PURGE_LEASE), any(Duration.class))).thenReturn(false);
+
+        task.performTask();
+
+        verifyNoInteractions(verificationStore);
+        verify(leaseManager, never()).release(anyString());
+    }
+}
@@ -0,0 +1,165 @@
+package org.mounanga.securityservice.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// two in-memory H2 databases stand in for the primary and the replica, each telling its name
+class ReadWriteRoutingDataSourceTest {
+
+    private static final long WINDOW = Duration.ofSeconds(5).toMillis();
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private JdbcTemplate routed;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+    private MutableClock clock;
+    private ReadYourWritesTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(database("primary"));
+        replica = new JdbcTemplate(database("replica"));
+        for (JdbcTemplate database : List.of(primary, replica)) {
+            database.execute("create table node (name varchar(16))");
+        }
+        primary.update("insert into node (name) values ('primary')");
+        replica.update("insert into node (name) values ('replica')");
+
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        tracker = new ReadYourWritesTracker(WINDOW, 2, clock);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary.getDataSource(), replica.getDataSource(), tracker, new SimpleMeterRegistry()));
+        routed = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.execute("drop table node");
+        replica.execute("drop table node");
+    }
+
+    @Test
+    void testReadOnlyTransactionReadsReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    void testReadWriteTransactionAndNoTransactionUsePrimary() {
+        assertEquals("primary", readWriteTransaction.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void testUserReadsOwnWritesFromPrimaryDuringWindow() {
+        authenticate("jdoe");
+        readWriteTransaction.executeWithoutResult(status -> routed.update("update node set name = name"));
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+
+        authenticate("asmith");
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+
+        authenticate("jdoe");
+        clock.advance(Duration.ofMillis(WINDOW));
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    void testRolledBackWriteDoesNotStick() {
+        authenticate("jdoe");
+        readWriteTransaction.executeWithoutResult(status -> {
+            routed.update("update node set name = name");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    void testAnonymousWritesAreNotTracked() {
+        readWriteTransaction.executeWithoutResult(status -> routed.update("update node set name = name"));
+
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    void testTrackerDropsExpiredUsersPastCapacity() {
+        tracker.recordWrite("jdoe");
+        tracker.recordWrite("asmith");
+        clock.advance(Duration.ofMillis(WINDOW));
+
+        tracker.recordWrite("bmartin");
+
+        assertEquals(1, tracker.size());
+        assertTrue(tracker.mustReadFromPrimary("bmartin"));
+        assertFalse(tracker.mustReadFromPrimary("jdoe"));
+    }
+
+    private String node() {
+        return routed.queryForObject("select name from node", String.class);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private static @NotNull JdbcDataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
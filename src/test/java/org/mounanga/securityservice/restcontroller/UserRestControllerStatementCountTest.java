@@ -0,0 +1,283 @@
+package org.mounanga.securityservice.restcontroller;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.entity.Profile;
+import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.RoleRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Pins the number of SQL statements behind each read of {@link UserRestController}, through the whole web
+ * layer: with {@code open-in-view} off, a response that needs an association outside of the entity graph of
+ * the use case fails to serialize, and one that loads it on its own shows up in the count.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.open-in-view=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "user0", authorities = "ADMIN")
+class UserRestControllerStatementCountTest {
+
+    private static final int USERS = 5;
+
+    // the scheduled jobs would read the database in the middle of a count
+    @TestConfiguration
+    static class SchedulingConfiguration {
+        @Bean
+        TaskScheduler taskScheduler() {
+            return new IdleTaskScheduler();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Long firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Role admin = roleRepository.save(Role.builder().name("ADMIN").description("Administrator").build());
+            Role user = roleRepository.save(Role.builder().name("USER").description("User").build());
+            for (int i = 0; i < USERS; i++) {
+                User saved = userRepository.save(User.builder()
+                        .username("user" + i)
+                        .email("user" + i + "@mail.com")
+                        .password("encoded")
+                        .enabled(true)
+                        .passwordMustBeModified(false)
+                        .roles(new ArrayList<>(List.of(admin, user)))
+                        .build());
+                profileRepository.save(Profile.builder()
+                        .firstname("John")
+                        .lastname("Doe" + i)
+                        .placeOfBirth("Paris")
+                        .dateOfBirth(LocalDate.of(1990, 1, 1))
+                        .nationality("French")
+                        .gender(Gender.M)
+                        .personalIdentificationNumber("PIN-" + i)
+                        .user(saved)
+                        .build());
+                if (i == 0) {
+                    firstUserId = saved.getId();
+                }
+            }
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            profileRepository.deleteAll();
+            userRepository.deleteAll();
+            roleRepository.deleteAll();
+        });
+    }
+
+    @Test
+    void testGetUserById() throws Exception {
+        mockMvc.perform(get("/users/get/{id}", firstUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.profile.lastname").value("Doe0"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUserByUsername() throws Exception {
+        mockMvc.perform(get("/users/username"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.profile.lastname").value("Doe0"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUserByEmail() throws Exception {
+        mockMvc.perform(get("/users/email/{email}", "user2@mail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.profile.lastname").value("Doe2"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetAllUsers() throws Exception {
+        mockMvc.perform(get("/users/list"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(USERS)))
+                .andExpect(jsonPath("$[4].profile.lastname").value("Doe4"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUsersByPage() throws Exception {
+        mockMvc.perform(get("/users/list/page").param("page", "0").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[2].profile.lastname").value("Doe2"));
+
+        // the page and its count
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearchUsers() throws Exception {
+        mockMvc.perform(get("/users/search").param("keyword", "Doe").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].profile.firstname").value("John"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUsersByCursor() throws Exception {
+        MvcResult first = mockMvc.perform(get("/users/list/cursor").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn();
+        String next = JsonPath.read(first.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(get("/users/list/cursor").param("after", next).param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(USERS - 3)))
+                .andExpect(jsonPath("$.content[1].profile.lastname").value("Doe4"))
+                .andExpect(jsonPath("$.next", nullValue()));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearchUsersByCursor() throws Exception {
+        mockMvc.perform(get("/users/search/cursor").param("keyword", "Doe").param("size", String.valueOf(USERS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(USERS)))
+                .andExpect(jsonPath("$.content[0].profile.firstname").value("John"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testExportUsersAsNdjson() throws Exception {
+        String body = export("ndjson");
+
+        assertEquals(USERS, body.lines().count());
+        assertTrue(body.lines().allMatch(line -> line.contains("\"lastname\":\"Doe")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testExportUsersAsCsv() throws Exception {
+        String body = export("csv");
+
+        // the header and one line per user
+        assertEquals(USERS + 1, body.lines().count());
+        assertTrue(body.contains("Doe4"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/users/list").param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private static class IdleTaskScheduler implements TaskScheduler {
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+            return null;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+            return null;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+            return null;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+            return null;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+            return null;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+            return null;
+        }
+    }
+}
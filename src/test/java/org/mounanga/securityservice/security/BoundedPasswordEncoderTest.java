@@ -0,0 +1,106 @@
+package org.mounanga.securityservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.exception.PasswordHashingRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void testDelegatesAndRecordsLatency() {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(null), 1, 1, 1000L, 1L, meterRegistry);
+
+        assertEquals("{plain}secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "{plain}secret"));
+        assertFalse(encoder.matches("other", "{plain}secret"));
+        assertEquals(1, meterRegistry.get("security.password.hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("security.password.hashing.duration").tag("operation", "matches").timer().count());
+        assertEquals(3, meterRegistry.get("security.password.hashing.wait").timer().count());
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(release), 1, 1, 5000L, 2L, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        waitFor(() -> activeHashes() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        waitFor(() -> encoder.getQueueSize() == 1);
+
+        PasswordHashingRejectedException exception = assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("third"));
+        assertEquals(2L, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("security.password.hashing.rejections").counter().count());
+
+        release.countDown();
+        assertEquals("{plain}first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("{plain}second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectsWhenWaitingTooLong() {
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(release), 1, 4, 50L, 1L, meterRegistry);
+
+        CompletableFuture.runAsync(() -> encoder.encode("blocking"));
+        waitFor(() -> activeHashes() == 1);
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.matches("secret", "{plain}secret"));
+    }
+
+    private double activeHashes() {
+        return meterRegistry.get("security.password.hashing.active").gauge().value();
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private record PlainEncoder(CountDownLatch latch) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "{plain}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return ("{plain}" + rawPassword).equals(encodedPassword);
+        }
+
+        private void await() {
+            if (latch == null) {
+                return;
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -8,10 +8,13 @@ import org.junit.jupiter.api.Test;
 import org.mounanga.securityservice.entity.Profile;
 import org.mounanga.securityservice.entity.Role;
 import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.SigningAlgorithm;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.security.KeyPair;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,8 +29,8 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService();
         secret = "secretABCHSDIDKZHDKDLSJDJDNQ";
+        jwtService = new JwtService(SigningKeys.hmac(secret));
         jwtExpiration = 3600000000L;
 
         Profile profile = new Profile();
@@ -47,7 +50,7 @@ class JwtServiceTest {
 
     @Test
     void generateToken() {
-        String jwt = jwtService.generateToken(user, secret, jwtExpiration);
+        String jwt = jwtService.generateToken(user, jwtExpiration);
         assertNotNull(jwt);
         Algorithm algorithm = Algorithm.HMAC256(secret);
         DecodedJWT decodedJWT = JWT.require(algorithm)
@@ -62,4 +65,48 @@ class JwtServiceTest {
         assertTrue(List.of(roles).contains("USER"));
         assertTrue(List.of(roles).contains("ADMIN"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateTokenEscapesClaims() {
+        user.getProfile().setFirstname("Jérôme \"Jo\"");
+        user.getProfile().setLastname("N'Dong\\\t😀");
+        String jwt = jwtService.generateToken(user, jwtExpiration);
+
+        DecodedJWT decodedJWT = JWT.require(Algorithm.HMAC256(secret)).build().verify(jwt);
+        assertEquals("Jérôme \"Jo\" N'Dong\\\t😀", decodedJWT.getClaim("fullName").asString());
+        assertEquals("HS256", decodedJWT.getAlgorithm());
+        assertNotNull(decodedJWT.getExpiresAt());
+    }
+
+    @Test
+    void generateTokenWithRotatedRsaKeys() {
+        KeyPair previous = SigningKeys.generateKeyPair(SigningAlgorithm.RS256);
+        KeyPair active = SigningKeys.generateKeyPair(SigningAlgorithm.RS256);
+        SigningKeys oldKeys = SigningKeys.asymmetric(SigningAlgorithm.RS256, previous, List.of());
+        SigningKeys rotatedKeys = SigningKeys.asymmetric(SigningAlgorithm.RS256, active, List.of(previous.getPublic()));
+
+        String oldJwt = new JwtService(oldKeys).generateToken(user, jwtExpiration);
+        String newJwt = new JwtService(rotatedKeys).generateToken(user, jwtExpiration);
+
+        DecodedJWT decodedNewJwt = JWT.require(rotatedKeys.getAlgorithm()).build().verify(newJwt);
+        DecodedJWT decodedOldJwt = JWT.require(rotatedKeys.getAlgorithm()).build().verify(oldJwt);
+
+        assertEquals(rotatedKeys.getActiveKeyId(), decodedNewJwt.getKeyId());
+        assertEquals(oldKeys.getActiveKeyId(), decodedOldJwt.getKeyId());
+        assertEquals("admin", decodedOldJwt.getSubject());
+        assertEquals(2, rotatedKeys.toJwks().size());
+    }
+
+    @Test
+    void generateTokenWithEcKey() {
+        SigningKeys signingKeys = SigningKeys.asymmetric(SigningAlgorithm.ES256, SigningKeys.generateKeyPair(SigningAlgorithm.ES256), List.of());
+        String jwt = new JwtService(signingKeys).generateToken(user, jwtExpiration);
+
+        DecodedJWT decodedJWT = JWT.require(signingKeys.getAlgorithm()).build().verify(jwt);
+        assertEquals("ES256", decodedJWT.getAlgorithm());
+
+        Map<String, Object> jwk = signingKeys.toJwks().getFirst();
+        assertEquals("EC", jwk.get("kty"));
+        assertEquals(signingKeys.getActiveKeyId(), jwk.get("kid"));
+    }
+}
@@ -0,0 +1,54 @@
+package org.mounanga.securityservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.enums.PasswordHashAlgorithm;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncodersTest {
+
+    @Test
+    void testCalibrationNeverGoesBelowMinimum() {
+        assertEquals(PasswordEncoders.MIN_BCRYPT_STRENGTH, PasswordEncoders.calibrateBCryptStrength(1L));
+        assertEquals(PasswordEncoders.MIN_ARGON2_ITERATIONS, PasswordEncoders.calibrateArgon2Iterations(1L));
+    }
+
+    @Test
+    void testLegacyHashIsAcceptedAndUpgraded() {
+        PasswordEncoder encoder = PasswordEncoders.calibrated(PasswordHashAlgorithm.BCRYPT, 1L);
+        String legacyHash = new BCryptPasswordEncoder().encode("Passw0rd!");
+
+        assertTrue(encoder.matches("Passw0rd!", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+
+        String hash = encoder.encode("Passw0rd!");
+        assertTrue(hash.startsWith("{bcrypt}"));
+        assertTrue(encoder.matches("Passw0rd!", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void testWeakerBCryptHashIsUpgraded() {
+        PasswordEncoder encoder = PasswordEncoders.calibrated(PasswordHashAlgorithm.BCRYPT, 1L);
+        String weakHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("Passw0rd!");
+
+        assertTrue(encoder.matches("Passw0rd!", weakHash));
+        assertTrue(encoder.upgradeEncoding(weakHash));
+    }
+
+    @Test
+    void testMovingToArgon2KeepsBCryptHashes() {
+        PasswordEncoder encoder = PasswordEncoders.calibrated(PasswordHashAlgorithm.ARGON2, 1L);
+        String bcryptHash = "{bcrypt}" + new BCryptPasswordEncoder(10).encode("Passw0rd!");
+
+        assertTrue(encoder.matches("Passw0rd!", bcryptHash));
+        assertTrue(encoder.upgradeEncoding(bcryptHash));
+
+        String hash = encoder.encode("Passw0rd!");
+        assertTrue(hash.startsWith("{argon2}"));
+        assertTrue(encoder.matches("Passw0rd!", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+}
@@ -0,0 +1,113 @@
+package org.mounanga.securityservice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitingFilterTest {
+
+    private ApplicationProperties properties;
+    private RateLimitingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = mock(ApplicationProperties.class);
+        when(properties.getRateLimitEnabled()).thenReturn(true);
+        when(properties.getRateLimitMaxKeys()).thenReturn(100);
+        when(properties.getRateLimitLoginIp()).thenReturn("100/60");
+        when(properties.getRateLimitLoginUsername()).thenReturn("2/60");
+        when(properties.getRateLimitVerificationIp()).thenReturn("100/60");
+        when(properties.getRateLimitVerificationEmail()).thenReturn("2/60");
+        filter = new RateLimitingFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testChunkedBodyIsLimitedPerAccount() throws Exception {
+        assertEquals(200, login(chunked("{\"username\":\"jdoe\",\"password\":\"guess1\"}")).getStatus());
+        assertEquals(200, login(chunked("{\"username\":\"jdoe\",\"password\":\"guess2\"}")).getStatus());
+
+        assertEquals(429, login(chunked("{\"username\":\"jdoe\",\"password\":\"guess3\"}")).getStatus());
+    }
+
+    @Test
+    void testBodyIsStillReadableDownstream() throws Exception {
+        String body = "{\"username\":\"jdoe\",\"password\":\"secret\"}";
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(chunked(body), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(body, new String(chain.getRequest().getInputStream().readAllBytes(), UTF_8));
+    }
+
+    @Test
+    void testOversizedBodyIsRejected() throws Exception {
+        String body = "{\"username\":\"" + "x".repeat(20 * 1024) + "\"}";
+
+        assertEquals(413, login(chunked(body)).getStatus());
+
+        MockHttpServletRequest declared = request();
+        declared.setContent(body.getBytes(UTF_8));
+        assertEquals(413, login(declared).getStatus());
+    }
+
+    @Test
+    void testAccountsMadeUpByOneClientDoNotLockOutTheOthers() throws Exception {
+        when(properties.getRateLimitMaxKeys()).thenReturn(3);
+        filter = new RateLimitingFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+        for (int i = 0; i < 20; i++) {
+            login(request("10.0.0.1", "{\"username\":\"fake" + i + "\",\"password\":\"guess\"}"));
+        }
+        assertEquals(429, login(request("10.0.0.1", "{\"username\":\"fake20\",\"password\":\"guess\"}")).getStatus());
+
+        assertEquals(200, login(request("10.0.0.2", "{\"username\":\"jdoe\",\"password\":\"secret\"}")).getStatus());
+    }
+
+    private MockHttpServletResponse login(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest chunked(String body) {
+        // no Content-Length: the body is only known once read
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/authentication/login") {
+            @Override
+            public ServletInputStream getInputStream() {
+                InputStream input = new ByteArrayInputStream(body.getBytes(UTF_8));
+                return new DelegatingServletInputStream(input);
+            }
+        };
+        request.setServletPath("/authentication/login");
+        request.addHeader("Transfer-Encoding", "chunked");
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String body) {
+        MockHttpServletRequest request = request();
+        request.setRemoteAddr(remoteAddr);
+        request.setContent(body.getBytes(UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/authentication/login");
+        request.setServletPath("/authentication/login");
+        return request;
+    }
+}
@@ -0,0 +1,94 @@
+package org.mounanga.securityservice.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private TokenBucketLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new TokenBucketLimiter(RateLimitPolicy.parse("5/60"), 3, now::get);
+    }
+
+    @Test
+    void testPolicyIsParsed() {
+        RateLimitPolicy policy = RateLimitPolicy.parse(" 10 / 30 ");
+        assertEquals(10, policy.capacity());
+        assertEquals(Duration.ofSeconds(30), policy.period());
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("10"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("0/30"));
+    }
+
+    @Test
+    void testBurstUpToCapacityThenReject() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, limiter.tryAcquire("jdoe"));
+        }
+        long wait = limiter.tryAcquire("jdoe");
+        assertEquals(TimeUnit.SECONDS.toNanos(12), wait);
+        assertEquals(0L, limiter.tryAcquire("other"));
+    }
+
+    @Test
+    void testTokensAreRefilledOverThePeriod() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("jdoe");
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(12));
+        assertEquals(0L, limiter.tryAcquire("jdoe"));
+        assertTrue(limiter.tryAcquire("jdoe") > 0);
+    }
+
+    @Test
+    void testIdleBucketsAreEvictedAtTheBound() {
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        limiter.tryAcquire("c");
+        assertEquals(3, limiter.size());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        limiter.tryAcquire("d");
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void testKeysBeyondTheBoundShareTheOverflowBucketOfTheirOverflowKey() {
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        limiter.tryAcquire("c");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, limiter.tryAcquire("overflow" + i, "10.0.0.1"));
+        }
+        assertTrue(limiter.tryAcquire("overflow5", "10.0.0.1") > 0);
+        assertEquals(0L, limiter.tryAcquire("jdoe", "10.0.0.2"));
+        assertEquals(3, limiter.size());
+    }
+
+    @Test
+    void testSaturatedMapIsScannedAtMostOncePerEmissionInterval() {
+        limiter.tryAcquire("a");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        limiter.tryAcquire("b");
+        limiter.tryAcquire("c");
+        // scanned: nothing idle yet
+        limiter.tryAcquire("d");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        // "a" is idle by now, but the last scan is less than an emission interval old
+        limiter.tryAcquire("e");
+        assertEquals(3, limiter.size());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        limiter.tryAcquire("f");
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,86 @@
+package org.mounanga.securityservice.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mounanga.securityservice.entity.User;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class UserAuthenticationProviderTest {
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserDetailsPasswordService userDetailsPasswordService;
+
+    private UserAuthenticationProvider provider;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        provider = new UserAuthenticationProvider(userDetailsService, passwordEncoder, userDetailsPasswordService);
+        User user = User.builder().id(1L).username("jdoe").password("stored").enabled(true).roles(List.of()).build();
+        principal = new UserPrincipal(user);
+    }
+
+    @Test
+    void testAuthenticateReturnsPrincipal() {
+        when(userDetailsService.loadUserByUsername("jdoe")).thenReturn(principal);
+        when(passwordEncoder.matches("secret", "stored")).thenReturn(true);
+
+        Authentication authentication = provider.authenticate(new UsernamePasswordAuthenticationToken("jdoe", "secret"));
+
+        assertTrue(authentication.isAuthenticated());
+        assertSame(principal, authentication.getPrincipal());
+        verifyNoInteractions(userDetailsPasswordService);
+    }
+
+    @Test
+    void testWeakHashIsUpgradedOnLogin() {
+        when(userDetailsService.loadUserByUsername("jdoe")).thenReturn(principal);
+        when(passwordEncoder.matches("secret", "stored")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("stored")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}stronger");
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("jdoe", "secret"));
+
+        verify(userDetailsPasswordService).updatePassword(principal, "{bcrypt}stronger");
+    }
+
+    @Test
+    void testWrongPasswordIsRejected() {
+        when(userDetailsService.loadUserByUsername("jdoe")).thenReturn(principal);
+        when(passwordEncoder.matches("wrong", "stored")).thenReturn(false);
+
+        Authentication request = new UsernamePasswordAuthenticationToken("jdoe", "wrong");
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(request));
+        verify(passwordEncoder, never()).upgradeEncoding(anyString());
+    }
+
+    @Test
+    void testUnknownUserStillHashes() {
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("not found"));
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy");
+
+        Authentication request = new UsernamePasswordAuthenticationToken("ghost", "secret");
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(request));
+        verify(passwordEncoder).matches("secret", "dummy");
+    }
+}
@@ -0,0 +1,111 @@
+package org.mounanga.securityservice.security;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.mounanga.securityservice.entity.Profile;
+import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserDetailsServiceImplTest {
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserDetailsServiceImpl userDetailsService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(userRepository);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Role admin = entityManager.persist(Role.builder().name("ADMIN").description("Administrator").build());
+        Role user = entityManager.persist(Role.builder().name("USER").description("User").build());
+        User jdoe = entityManager.persist(User.builder()
+                .username("jdoe")
+                .email("jdoe@mail.com")
+                .password("encoded")
+                .enabled(true)
+                .passwordMustBeModified(false)
+                .roles(List.of(admin, user))
+                .build());
+        entityManager.persist(Profile.builder()
+                .firstname("John")
+                .lastname("Doe")
+                .placeOfBirth("Paris")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .nationality("French")
+                .gender(Gender.M)
+                .personalIdentificationNumber("PIN-0001")
+                .user(jdoe)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void testLoginByUsernameRunsOneQuery() {
+        UserPrincipal principal = userDetailsService.loadUserByUsername("jdoe");
+
+        User user = principal.getUser();
+        assertEquals("jdoe", principal.getUsername());
+        assertEquals(2, principal.getAuthorities().size());
+        assertEquals("John Doe", user.getProfile().getFullName());
+        assertTrue(principal.isEnabled());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testLoginByEmailRunsOneQuery() {
+        UserPrincipal principal = userDetailsService.loadUserByUsername("jdoe@mail.com");
+
+        assertEquals("jdoe", principal.getUsername());
+        assertEquals(2, principal.getUser().getRoles().size());
+        assertEquals("John Doe", principal.getUser().getProfile().getFullName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testUnknownUser() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,67 @@
+package org.mounanga.securityservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationCodeGeneratorTest {
+
+    private static final String DIGITS = "0123456789";
+
+    @Test
+    void testCodesHaveTheConfiguredLengthAndAlphabet() {
+        VerificationCodeGenerator generator = new VerificationCodeGenerator(8, "ABCDEFGHJKMNPQRSTVWXYZ", 0, new SecureRandom());
+        for (int i = 0; i < 1_000; i++) {
+            String code = generator.generate();
+            assertEquals(8, code.length());
+            assertTrue(code.matches("[ABCDEFGHJKMNPQRSTVWXYZ]{8}"), code);
+        }
+    }
+
+    @Test
+    void testSymbolsAreUniformlyDistributed() throws NoSuchAlgorithmException {
+        // seeded before its first use, SHA1PRNG is deterministic: the same draws pass on every build
+        SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+        random.setSeed(42L);
+        VerificationCodeGenerator generator = new VerificationCodeGenerator(6, DIGITS, 0, random);
+        long[] counts = new long[DIGITS.length()];
+        int codes = 100_000;
+        for (int i = 0; i < codes; i++) {
+            for (char symbol : generator.generate().toCharArray()) {
+                counts[symbol - '0']++;
+            }
+        }
+        double expected = codes * 6.0 / DIGITS.length();
+        double chiSquare = 0;
+        for (long count : counts) {
+            chiSquare += (count - expected) * (count - expected) / expected;
+        }
+        // critical value of the chi-square distribution with 9 degrees of freedom at p = 0.001
+        assertTrue(chiSquare < 27.88, "chi-square " + chiSquare);
+    }
+
+    @Test
+    void testPoolIsDrainedThenRefilled() {
+        VerificationCodeGenerator generator = new VerificationCodeGenerator(6, DIGITS, 4, new SecureRandom());
+        assertEquals(4, generator.pooledCount());
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(generator.next().matches("\\d{6}"));
+        }
+        assertEquals(0, generator.pooledCount());
+
+        generator.refill();
+        assertEquals(4, generator.pooledCount());
+    }
+
+    @Test
+    void testInvalidAlphabetIsRefused() {
+        SecureRandom random = new SecureRandom();
+        assertThrows(IllegalArgumentException.class, () -> new VerificationCodeGenerator(6, "0", 0, random));
+        assertThrows(IllegalArgumentException.class, () -> new VerificationCodeGenerator(6, "0012", 0, random));
+        assertThrows(IllegalArgumentException.class, () -> new VerificationCodeGenerator(0, DIGITS, 0, random));
+    }
+}
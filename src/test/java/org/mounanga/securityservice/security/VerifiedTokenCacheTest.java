@@ -0,0 +1,73 @@
+package org.mounanga.securityservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache tokenCache;
+    private UsernamePasswordAuthenticationToken authentication;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new VerifiedTokenCache(3, 60_000L, new SimpleMeterRegistry());
+        authentication = new UsernamePasswordAuthenticationToken("admin", null, List.of());
+    }
+
+    @Test
+    void testKeyIsStableDigest() {
+        assertEquals(tokenCache.key("a.b.c"), tokenCache.key("a.b.c"));
+        assertNotEquals(tokenCache.key("a.b.c"), tokenCache.key("a.b.d"));
+    }
+
+    @Test
+    void testVerifiedTokenIsServedFromCache() {
+        String key = tokenCache.key("a.b.c");
+        assertNull(tokenCache.get(key));
+
+        tokenCache.putVerified(key, authentication, Instant.now().plusSeconds(60));
+        VerifiedTokenCache.CachedToken cached = tokenCache.get(key);
+
+        assertNotNull(cached);
+        assertFalse(cached.isRejected());
+        assertSame(authentication, cached.authentication());
+        assertEquals(1, tokenCache.hitCount());
+        assertEquals(1, tokenCache.missCount());
+    }
+
+    @Test
+    void testEntryIsEvictedAtTokenExpiry() {
+        String key = tokenCache.key("a.b.c");
+        tokenCache.putVerified(key, authentication, Instant.now().minusSeconds(1));
+
+        assertNull(tokenCache.get(key));
+        assertEquals(1, tokenCache.evictionCount());
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void testRejectedTokenIsRemembered() {
+        String key = tokenCache.key("bad.token.value");
+        tokenCache.putRejected(key);
+
+        VerifiedTokenCache.CachedToken cached = tokenCache.get(key);
+        assertNotNull(cached);
+        assertTrue(cached.isRejected());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        for (int i = 0; i < 10; i++) {
+            tokenCache.putVerified(tokenCache.key("token" + i), authentication, Instant.now().plusSeconds(60));
+        }
+        assertTrue(tokenCache.size() <= 3);
+        assertTrue(tokenCache.evictionCount() > 0);
+    }
+}
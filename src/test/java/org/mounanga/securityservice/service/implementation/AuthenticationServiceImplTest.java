@@ -7,19 +7,20 @@ import org.mockito.Mock;
 import org.mounanga.securityservice.configuration.ApplicationProperties;
 import org.mounanga.securityservice.dto.LoginRequestDTO;
 import org.mounanga.securityservice.dto.LoginResponseDTO;
-import org.mounanga.securityservice.dto.MailDTO;
 import org.mounanga.securityservice.entity.User;
 
 import org.mounanga.securityservice.exception.UserNotEnabledException;
 import org.mounanga.securityservice.exception.UserNotFoundException;
 import org.mounanga.securityservice.repository.UserRepository;
 import org.mounanga.securityservice.security.JwtService;
+import org.mounanga.securityservice.security.UserPrincipal;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,14 +43,14 @@ class AuthenticationServiceImplTest {
     private JwtService jwtService;
 
     @Mock
-    private MailingService mailingService;
+    private LoginNotificationAggregator loginNotificationAggregator;
 
     @InjectMocks
     private AuthenticationServiceImpl authenticationService;
 
     @BeforeEach
     void setUp() {
-        authenticationService = new AuthenticationServiceImpl(authenticationManager,userRepository, properties, jwtService, mailingService);
+        authenticationService = new AuthenticationServiceImpl(authenticationManager,userRepository, properties, jwtService, loginNotificationAggregator);
     }
 
     @Test
@@ -66,16 +67,37 @@ class AuthenticationServiceImplTest {
         User mockUser = mock(User.class);
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(mockUser));
         when(mockUser.isEnabled()).thenReturn(true);
-        when(properties.getJwtSecret()).thenReturn("jwtSecret");
         when(properties.getJwtExpiration()).thenReturn(1000L * 60 * 60);
-        when(jwtService.generateToken(mockUser, "jwtSecret", 1000L * 60 * 60)).thenReturn("jwtToken");
+        when(jwtService.generateToken(mockUser, 1000L * 60 * 60)).thenReturn("jwtToken");
 
         LoginResponseDTO response = authenticationService.authenticate(request);
 
         assertNotNull(response);
         assertEquals("jwtToken", response.jwt());
 
-        verify(mailingService, times(1)).send(any(MailDTO.class));
+        verify(loginNotificationAggregator, times(1)).notifyLogin(any(User.class));
+    }
+
+    @Test
+    void testAuthenticateReusesAuthenticatedUser() {
+        String username = "testUser";
+        String password = "password";
+        LoginRequestDTO request = new LoginRequestDTO(username, password);
+        Authentication authenticationRequest = new UsernamePasswordAuthenticationToken(username, password);
+
+        User user = User.builder().username(username).password("encoded").enabled(true).passwordMustBeModified(false).roles(List.of()).build();
+        UserPrincipal principal = new UserPrincipal(user);
+        Authentication authenticationResponse = UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+
+        when(authenticationManager.authenticate(authenticationRequest)).thenReturn(authenticationResponse);
+        when(properties.getJwtExpiration()).thenReturn(1000L * 60 * 60);
+        when(jwtService.generateToken(user, 1000L * 60 * 60)).thenReturn("jwtToken");
+
+        LoginResponseDTO response = authenticationService.authenticate(request);
+
+        assertEquals("jwtToken", response.jwt());
+        assertFalse(response.passwordNeedToBeUpdated());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -95,7 +117,7 @@ class AuthenticationServiceImplTest {
 
         assertThrows(UserNotEnabledException.class, () -> authenticationService.authenticate(request));
 
-        verify(mailingService, times(0)).send(any(MailDTO.class));
+        verify(loginNotificationAggregator, times(0)).notifyLogin(any(User.class));
     }
 
     @Test
@@ -110,7 +132,7 @@ class AuthenticationServiceImplTest {
 
         assertThrows(BadCredentialsException.class, () -> authenticationService.authenticate(request));
 
-        verify(mailingService, times(0)).send(any(MailDTO.class));
+        verify(loginNotificationAggregator, times(0)).notifyLogin(any(User.class));
     }
 
 
@@ -129,6 +151,6 @@ class AuthenticationServiceImplTest {
 
         assertThrows(UserNotFoundException.class, () -> authenticationService.authenticate(request));
 
-        verify(mailingService, times(0)).send(any(MailDTO.class));
+        verify(loginNotificationAggregator, times(0)).notifyLogin(any(User.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package org.mounanga.securityservice.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mounanga.securityservice.entity.Verification;
+
+import java.nio.file.Path;
+import java.time.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryVerificationStoreTest {
+
+    private static final String EMAIL = "jdoe@mail.com";
+
+    @TempDir
+    Path directory;
+
+    private MutableClock clock;
+    private InMemoryVerificationStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        store = new InMemoryVerificationStore(null, clock);
+    }
+
+    @Test
+    void testVerificationIsFoundByEmailAndCodeHash() {
+        Verification verification = verification("hash", Duration.ofMinutes(30));
+        store.save(verification);
+
+        assertNotNull(verification.getId());
+        assertEquals(Optional.of(verification), store.find(EMAIL, "hash"));
+        assertTrue(store.find(EMAIL, "other").isEmpty());
+        assertTrue(store.find("other@mail.com", "hash").isEmpty());
+    }
+
+    @Test
+    void testVerificationExpiresWithTheWheel() {
+        store.save(verification("hash", Duration.ofMinutes(30)));
+
+        clock.advance(Duration.ofMinutes(29));
+        store.expire();
+        assertEquals(1, store.size());
+
+        clock.advance(Duration.ofMinutes(1));
+        store.expire();
+        assertEquals(0, store.size());
+        assertTrue(store.find(EMAIL, "hash").isEmpty());
+    }
+
+    @Test
+    void testAttemptsLockTheEmail() {
+        store.save(verification("hash", Duration.ofMinutes(30)));
+
+        assertTrue(store.tryAttempt(EMAIL, 2));
+        assertFalse(store.isLocked(EMAIL, 2));
+        assertTrue(store.tryAttempt(EMAIL, 2));
+
+        assertFalse(store.tryAttempt(EMAIL, 2));
+        assertTrue(store.isLocked(EMAIL, 2));
+        assertEquals(2, store.find(EMAIL, "hash").orElseThrow().getAttempts());
+        assertFalse(store.tryAttempt("unknown@mail.com", 2));
+    }
+
+    @Test
+    void testParallelAttemptsStopAtTheLimit() throws Exception {
+        store.save(verification("hash", Duration.ofMinutes(30)));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> guesses = Collections.nCopies(50, () -> store.tryAttempt(EMAIL, 5));
+            long counted = 0;
+            for (Future<Boolean> guess : executor.invokeAll(guesses)) {
+                counted += guess.get() ? 1 : 0;
+            }
+            assertEquals(5, counted);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testDeletedVerificationIsGone() {
+        Verification verification = verification("hash", Duration.ofMinutes(30));
+        store.save(verification);
+
+        store.delete(verification);
+
+        assertTrue(store.find(EMAIL, "hash").isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testJournalIsReplayedOnRestart() throws Exception {
+        String journal = directory.resolve("verifications.journal").toString();
+        InMemoryVerificationStore first = new InMemoryVerificationStore(journal, clock);
+        Verification kept = verification("kept", Duration.ofMinutes(30));
+        Verification deleted = verification("deleted", Duration.ofMinutes(30));
+        first.save(kept);
+        first.save(deleted);
+        first.save(verification("expiring", Duration.ofMinutes(5)));
+        first.tryAttempt(EMAIL, 5);
+        first.delete(deleted);
+        first.close();
+
+        clock.advance(Duration.ofMinutes(10));
+        InMemoryVerificationStore second = new InMemoryVerificationStore(journal, clock);
+
+        assertEquals(1, second.size());
+        Verification restored = second.find(EMAIL, "kept").orElseThrow();
+        assertEquals(kept.getId(), restored.getId());
+        assertEquals(kept.getExpires(), restored.getExpires());
+        assertEquals(1, restored.getAttempts());
+        second.close();
+    }
+
+    private Verification verification(String codeHash, Duration validity) {
+        return Verification.builder()
+                .email(EMAIL)
+                .codeHash(codeHash)
+                .attempts(0)
+                .expires(LocalDateTime.now(clock).plus(validity))
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
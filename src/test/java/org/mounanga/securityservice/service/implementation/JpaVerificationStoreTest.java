@@ -0,0 +1,105 @@
+package org.mounanga.securityservice.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.mounanga.securityservice.entity.Verification;
+import org.mounanga.securityservice.repository.VerificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// every guess commits on its own, as resetPassword does
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaVerificationStoreTest {
+
+    private static final String EMAIL = "jdoe@mail.com";
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private VerificationRepository verificationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JpaVerificationStore store;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        store = new JpaVerificationStore(verificationRepository);
+        transaction = new TransactionTemplate(transactionManager);
+        verificationRepository.save(Verification.builder()
+                .email(EMAIL)
+                .codeHash("hash")
+                .expires(LocalDateTime.now().plusMinutes(30))
+                .attempts(0)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        verificationRepository.deleteAll();
+    }
+
+    @Test
+    void testAttemptIsOnlyCountedUnderTheLimit() {
+        assertEquals(1, incrementAttemptsBelow(2));
+        assertEquals(1, incrementAttemptsBelow(2));
+        assertEquals(0, incrementAttemptsBelow(2));
+
+        assertEquals(2, verificationRepository.findFirstByEmailAndCodeHash(EMAIL, "hash").orElseThrow().getAttempts());
+        assertTrue(store.isLocked(EMAIL, 2));
+    }
+
+    @Test
+    void testParallelAttemptsStopAtTheLimit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Callable<Boolean> guess = () -> transaction.execute(status -> store.tryAttempt(EMAIL, 5));
+            List<Future<Boolean>> guesses = executor.invokeAll(Collections.nCopies(50, guess));
+            long counted = 0;
+            for (Future<Boolean> result : guesses) {
+                counted += Boolean.TRUE.equals(result.get()) ? 1 : 0;
+            }
+            assertEquals(5, counted);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(5, verificationRepository.findFirstByEmailAndCodeHash(EMAIL, "hash").orElseThrow().getAttempts());
+    }
+
+    private int incrementAttemptsBelow(int maxAttempts) {
+        Integer updated = transaction.execute(status -> verificationRepository.incrementAttemptsBelow(EMAIL, maxAttempts));
+        return updated == null ? 0 : updated;
+    }
+}
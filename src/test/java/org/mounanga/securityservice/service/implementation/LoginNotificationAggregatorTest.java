@@ -0,0 +1,144 @@
+package org.mounanga.securityservice.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.dto.MailDTO;
+import org.mounanga.securityservice.entity.User;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class LoginNotificationAggregatorTest {
+
+    private static final long WINDOW = Duration.ofHours(1).toMillis();
+
+    @Mock
+    private MailingService mailingService;
+
+    @Mock
+    private ApplicationProperties properties;
+
+    private MutableClock clock;
+    private LoginNotificationAggregator aggregator;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        when(properties.getLoginNotificationWindow()).thenReturn(WINDOW);
+        when(properties.getLoginNotificationKnownClientTtl()).thenReturn(Duration.ofDays(30).toMillis());
+        when(properties.getLoginNotificationMaxUsers()).thenReturn(2);
+        when(properties.getLoginNotificationMaxListedLogins()).thenReturn(3);
+        when(properties.getLoginNotificationImmediateOnNewClient()).thenReturn(true);
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        aggregator = new LoginNotificationAggregator(mailingService, properties, clock);
+        user = User.builder().username("jdoe").email("jdoe@mail.com").build();
+    }
+
+    @Test
+    void testNewClientIsNotifiedImmediately() {
+        aggregator.notifyLogin(user, "10.0.0.1|mobile");
+
+        verify(mailingService, times(1)).send(any(MailDTO.class));
+        assertEquals(0, aggregator.pendingCount());
+    }
+
+    @Test
+    void testLoginsInsideWindowAreCollapsedIntoOneDigest() {
+        aggregator.notifyLogin(user, "10.0.0.1|mobile");
+        clearInvocations(mailingService);
+
+        for (int i = 0; i < 5; i++) {
+            clock.advance(Duration.ofMinutes(5));
+            aggregator.notifyLogin(user, "10.0.0.1|mobile");
+        }
+        aggregator.flush();
+        verify(mailingService, never()).send(any(MailDTO.class));
+
+        clock.advance(Duration.ofHours(1));
+        aggregator.flush();
+
+        ArgumentCaptor<MailDTO> mail = ArgumentCaptor.forClass(MailDTO.class);
+        verify(mailingService, times(1)).send(mail.capture());
+        assertEquals("jdoe@mail.com", mail.getValue().to());
+        assertTrue(mail.getValue().body().contains("5 time(s)"));
+        assertTrue(mail.getValue().body().contains("<li>and 2 more</li>"));
+        // three logins listed, then the remainder
+        assertEquals(4, mail.getValue().body().split("<li>", -1).length - 1);
+        assertFalse(mail.getValue().body().contains("\n"));
+        assertEquals(0, aggregator.pendingCount());
+    }
+
+    @Test
+    void testBufferIsBounded() {
+        for (int i = 0; i < 4; i++) {
+            User other = User.builder().username("user" + i).email("user" + i + "@mail.com").build();
+            aggregator.notifyLogin(other, "client");
+            aggregator.notifyLogin(other, "client");
+        }
+        assertEquals(2, aggregator.pendingCount());
+        // 4 first logins from new clients, 2 logins beyond the buffer bound
+        verify(mailingService, times(6)).send(any(MailDTO.class));
+    }
+
+    @Test
+    void testPendingDigestsAreSentOnShutdown() {
+        aggregator.notifyLogin(user, "10.0.0.1|mobile");
+        aggregator.notifyLogin(user, "10.0.0.1|mobile");
+        clearInvocations(mailingService);
+
+        aggregator.flushAll();
+
+        verify(mailingService, times(1)).send(any(MailDTO.class));
+        assertEquals(0, aggregator.pendingCount());
+    }
+
+    @Test
+    void testForgottenClientIsNewAgain() {
+        aggregator.notifyLogin(user, "10.0.0.1|mobile");
+        clock.advance(Duration.ofDays(31));
+        aggregator.flush();
+        aggregator.notifyLogin(user, "10.0.0.1|mobile");
+
+        verify(mailingService, times(2)).send(any(MailDTO.class));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
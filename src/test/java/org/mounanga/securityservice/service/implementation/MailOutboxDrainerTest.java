@@ -0,0 +1,141 @@
+package org.mounanga.securityservice.service.implementation;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.entity.MailOutbox;
+import org.mounanga.securityservice.enums.MailStatus;
+import org.mounanga.securityservice.repository.MailOutboxRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class MailOutboxDrainerTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Mock
+    private SpringTemplateEngine templateEngine;
+
+    @Mock
+    private ApplicationProperties properties;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(properties.getNotificationEmailAddress()).thenReturn("donot-reply@system.com");
+        when(properties.getMailOutboxBatchSize()).thenReturn(50);
+        when(properties.getMailOutboxMaxAttempts()).thenReturn(3);
+        when(properties.getMailOutboxBackoff()).thenReturn(30_000L);
+        when(properties.getMailOutboxMaxBackoff()).thenReturn(3_600_000L);
+        when(templateEngine.process(eq("notification.html"), any(IContext.class))).thenReturn("<p>notification</p>");
+    }
+
+    @Test
+    void testBatchIsSentOverOneConnectionAndRemoved() {
+        List<MailOutbox> batch = IntStream.range(0, 20).mapToObj(i -> pending((long) i, "user" + i + "@mail.com")).toList();
+        when(mailOutboxRepository.findDue(eq(MailStatus.PENDING), any(LocalDateTime.class), any(Pageable.class))).thenReturn(batch);
+
+        int drained = drainer(greenMail.getSmtp().getPort()).drainBatch();
+
+        assertEquals(20, drained);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(20, received.length);
+        verify(mailOutboxRepository).deleteAllInBatch(batch);
+    }
+
+    @Test
+    void testFailedMailIsRetriedWithBackoff() {
+        MailOutbox mail = pending(1L, "user@mail.com");
+        when(mailOutboxRepository.findDue(eq(MailStatus.PENDING), any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(mail));
+
+        drainer(closedPort()).drainBatch();
+
+        assertEquals(MailStatus.PENDING, mail.getStatus());
+        assertEquals(1, mail.getAttempts());
+        assertTrue(mail.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        assertNotNull(mail.getLastError());
+        verify(mailOutboxRepository).deleteAllInBatch(new ArrayList<>());
+    }
+
+    @Test
+    void testMailIsDeadLetteredAfterMaxAttempts() {
+        MailOutbox mail = pending(1L, "user@mail.com");
+        mail.setAttempts(2);
+        when(mailOutboxRepository.findDue(eq(MailStatus.PENDING), any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(mail));
+
+        drainer(closedPort()).drainBatch();
+
+        assertEquals(MailStatus.DEAD, mail.getStatus());
+        assertEquals(3, mail.getAttempts());
+        assertEquals(MailOutboxDrainer.REDACTED_BODY, mail.getBody());
+    }
+
+    @Test
+    void testUnrenderableMailIsDeadLetteredWithoutBlockingTheBatch() {
+        MailOutbox poison = pending(1L, null);
+        MailOutbox valid = pending(2L, "user@mail.com");
+        when(mailOutboxRepository.findDue(eq(MailStatus.PENDING), any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(poison, valid));
+
+        drainer(greenMail.getSmtp().getPort()).drainBatch();
+
+        assertEquals(MailStatus.DEAD, poison.getStatus());
+        assertEquals(MailOutboxDrainer.REDACTED_BODY, poison.getBody());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        verify(mailOutboxRepository).deleteAllInBatch(List.of(valid));
+    }
+
+    private MailOutboxDrainer drainer(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return new MailOutboxDrainer(mailOutboxRepository, mailSender, templateEngine, properties, transactionManager,
+                new SyncTaskExecutor(), new SimpleMeterRegistry());
+    }
+
+    private static MailOutbox pending(Long id, String recipient) {
+        return MailOutbox.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Connection notification")
+                .body("Hello")
+                .status(MailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static int closedPort() {
+        try (java.net.ServerSocket socket = new java.net.ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
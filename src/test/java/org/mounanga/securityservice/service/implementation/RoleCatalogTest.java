@@ -0,0 +1,144 @@
+package org.mounanga.securityservice.service.implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mounanga.securityservice.dto.RoleResponseDTO;
+import org.mounanga.securityservice.repository.RoleRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleCatalogTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private RoleCatalog roleCatalog;
+    private RoleResponseDTO admin;
+    private RoleResponseDTO user;
+
+    @BeforeEach
+    void setUp() {
+        admin = role(1L, "ADMIN");
+        user = role(2L, "USER");
+        lenient().when(roleRepository.findAllViews()).thenReturn(List.of(user, admin));
+        roleCatalog = new RoleCatalog(roleRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testLookupsAreServedFromSnapshot() {
+        assertEquals(Optional.of(admin), roleCatalog.findById(1L));
+        assertEquals(Optional.of(user), roleCatalog.findByName("USER"));
+        assertEquals(List.of(admin, user), roleCatalog.findAll());
+        assertEquals(List.of(user), roleCatalog.findAll(1, 1));
+
+        assertEquals(4, roleCatalog.hitCount());
+        assertEquals(0, roleCatalog.missCount());
+        verify(roleRepository, times(1)).findAllViews();
+        verify(roleRepository, never()).findViewById(any());
+    }
+
+    @Test
+    void testMissFallsBackToDatabaseOnce() {
+        RoleResponseDTO auditor = role(3L, "AUDITOR");
+        when(roleRepository.findViewByName("AUDITOR")).thenReturn(Optional.of(auditor));
+
+        assertEquals(Optional.of(auditor), roleCatalog.findByName("AUDITOR"));
+        assertEquals(Optional.of(auditor), roleCatalog.findById(3L));
+        assertTrue(roleCatalog.findByName("UNKNOWN").isEmpty());
+
+        assertEquals(2, roleCatalog.missCount());
+        assertEquals(1, roleCatalog.hitCount());
+        verify(roleRepository, never()).findViewById(3L);
+    }
+
+    @Test
+    void testRoleReadInsideTransactionIsKeptOnlyOnceCommitted() {
+        roleCatalog.version();
+        RoleResponseDTO auditor = role(3L, "AUDITOR");
+        when(roleRepository.findViewById(3L)).thenReturn(Optional.of(auditor));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(Optional.of(auditor), roleCatalog.findById(3L));
+            when(roleRepository.findViewById(3L)).thenReturn(Optional.empty());
+            assertTrue(roleCatalog.findById(3L).isEmpty());
+
+            when(roleRepository.findViewById(3L)).thenReturn(Optional.of(auditor));
+            roleCatalog.findById(3L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(Optional.of(auditor), roleCatalog.findByName("AUDITOR"));
+    }
+
+    @Test
+    void testInvalidPageIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> roleCatalog.findAll(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> roleCatalog.findAll(0, 0));
+    }
+
+    @Test
+    void testEvictedRoleIsGoneWithoutWaitingForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            roleCatalog.evict(2L);
+            assertTrue(roleCatalog.findByName("USER").isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testWriteThroughSwapsSnapshot() {
+        long version = roleCatalog.version();
+
+        roleCatalog.put(role(1L, "SUPER_ADMIN"));
+        assertEquals("SUPER_ADMIN", roleCatalog.findById(1L).orElseThrow().name());
+        assertTrue(roleCatalog.findByName("ADMIN").isEmpty());
+
+        roleCatalog.remove(2L);
+        assertTrue(roleCatalog.findById(2L).isEmpty());
+        assertEquals(version + 2, roleCatalog.version());
+    }
+
+    @Test
+    void testWriteThroughWaitsForCommit() {
+        roleCatalog.version();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            roleCatalog.remove(1L);
+            assertEquals(Optional.of(admin), roleCatalog.findById(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(roleCatalog.findById(1L).isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testReloadPicksUpExternalChanges() {
+        long version = roleCatalog.version();
+        when(roleRepository.findAllViews()).thenReturn(List.of(admin));
+
+        roleCatalog.reload();
+
+        assertEquals(List.of(admin), roleCatalog.findAll());
+        assertEquals(version + 1, roleCatalog.version());
+    }
+
+    private static RoleResponseDTO role(Long id, String name) {
+        return new RoleResponseDTO(id, name, name, null, null, null, null);
+    }
+}
@@ -1,9 +1,11 @@
 package org.mounanga.securityservice.service.implementation;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
 import org.mounanga.securityservice.dto.RoleRequestDTO;
 import org.mounanga.securityservice.dto.RoleResponseDTO;
 import org.mounanga.securityservice.entity.Role;
@@ -11,11 +13,13 @@ import org.mounanga.securityservice.exception.FieldError;
 import org.mounanga.securityservice.exception.FieldValidationException;
 import org.mounanga.securityservice.exception.RoleNotFoundException;
 import org.mounanga.securityservice.repository.RoleRepository;
+import org.mounanga.securityservice.util.Mappers;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.Optional;
@@ -41,7 +45,7 @@ class RoleServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        roleService = new RoleServiceImpl(roleRepository);
+        roleService = new RoleServiceImpl(roleRepository, new RoleCatalog(roleRepository, new SimpleMeterRegistry()));
         role = new Role();
         role.setName("ADMIN");
         role.setDescription("Admin");
@@ -49,13 +53,14 @@ class RoleServiceImplTest {
         roleRequestDTO = new RoleRequestDTO("ROLE_USER", "ROLE_USER");
         roleEntity = new Role();
         roleEntity.setName("ROLE_USER");
+        roleEntity.setId(2L);
 
     }
 
     @Test
     void testFindRoleByName(){
         String roleName = "ADMIN";
-        when(roleRepository.findByName(anyString())).thenReturn(Optional.of(role));
+        when(roleRepository.findViewByName(anyString())).thenReturn(Optional.of(Mappers.from(role)));
         RoleResponseDTO response = roleService.findRoleByName(roleName);
         assertNotNull(response);
         assertEquals(roleName, response.name());
@@ -64,14 +69,14 @@ class RoleServiceImplTest {
     @Test
     void testFindRoleByNameThrowsRoleNotFoundException(){
         String roleName = "ADMIN";
-        when(roleRepository.findByName(anyString())).thenReturn(Optional.empty());
+        when(roleRepository.findViewByName(anyString())).thenReturn(Optional.empty());
         assertThrows(RoleNotFoundException.class, () -> roleService.findRoleByName(roleName));
     }
 
     @Test
     void testFindRoleById(){
         Long roleId = 1L;
-        when(roleRepository.findById(any(Long.class))).thenReturn(Optional.of(role));
+        when(roleRepository.findViewById(any(Long.class))).thenReturn(Optional.of(Mappers.from(role)));
         RoleResponseDTO response = roleService.findRoleById(roleId);
         assertNotNull(response);
         assertEquals(roleId, response.id());
@@ -80,14 +85,14 @@ class RoleServiceImplTest {
     @Test
     void testFindRoleByIdThrowsRoleNotFoundException(){
         Long roleId = 1L;
-        when(roleRepository.findById(any(Long.class))).thenReturn(Optional.empty());
+        when(roleRepository.findViewById(any(Long.class))).thenReturn(Optional.empty());
         assertThrows(RoleNotFoundException.class, () -> roleService.findRoleById(roleId));
     }
 
     @Test
     void testFindAllRoles(){
-        List<Role> roles = List.of(role);
-        when(roleRepository.findAll()).thenReturn(roles);
+        List<RoleResponseDTO> roles = List.of(Mappers.from(role));
+        when(roleRepository.findAllViews()).thenReturn(roles);
         List<RoleResponseDTO> response = roleService.findAllRoles();
         assertNotNull(response);
         assertEquals(roles.size(), response.size());
@@ -97,13 +102,12 @@ class RoleServiceImplTest {
     void testFindAllRolesByPages(){
         int page = 0;
         int size = 1;
-        List<Role> roles = List.of(role);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Role> rolePage = new PageImpl<>(roles);
-        when(roleRepository.findAll(pageable)).thenReturn(rolePage);
+        List<RoleResponseDTO> roles = List.of(Mappers.from(role), Mappers.from(roleEntity));
+        when(roleRepository.findAllViews()).thenReturn(roles);
         List<RoleResponseDTO> response = roleService.findAllRoles(page, size);
         assertNotNull(response);
-        assertEquals(roles.size(), response.size());
+        assertEquals(size, response.size());
+        assertEquals(role.getId(), response.getFirst().id());
     }
 
     @Test
@@ -111,9 +115,9 @@ class RoleServiceImplTest {
         String keyword = "admin";
         int page = 0;
         int size = 1;
-        List<Role> roles = List.of(role);
+        List<RoleResponseDTO> roles = List.of(Mappers.from(role));
         Pageable pageable = PageRequest.of(page, size);
-        Page<Role> rolePage = new PageImpl<>(roles);
+        Page<RoleResponseDTO> rolePage = new PageImpl<>(roles);
         when(roleRepository.search("%"+keyword+"%", pageable)).thenReturn(rolePage);
 
         List<RoleResponseDTO> response = roleService.searchAllRoles(keyword, page, size);
@@ -121,6 +125,22 @@ class RoleServiceImplTest {
         assertEquals(roles.size(), response.size());
     }
 
+    @Test
+    void testSearchRolesByCursor(){
+        RoleResponseDTO next = new RoleResponseDTO(2L, "ADMIN_READER", "Admin reader", null, null, null, null);
+        Pageable pageable = PageRequest.of(0, 1);
+        when(roleRepository.searchFirstPage("%admin%", pageable)).thenReturn(new SliceImpl<>(List.of(Mappers.from(role)), pageable, true));
+        when(roleRepository.searchPageAfter("%admin%", "ADMIN", 1L, pageable)).thenReturn(new SliceImpl<>(List.of(next), pageable, false));
+
+        CursorPageResponseDTO<RoleResponseDTO> first = roleService.searchAllRoles("admin", null, 1);
+        assertEquals(1, first.content().size());
+        assertNotNull(first.next());
+
+        CursorPageResponseDTO<RoleResponseDTO> second = roleService.searchAllRoles("admin", first.next(), 1);
+        assertEquals(1, second.content().size());
+        assertNull(second.next());
+    }
+
     @Test
     void testDeleteRoleByIdSuccess() {
 
@@ -152,6 +172,18 @@ class RoleServiceImplTest {
         verify(roleRepository, times(1)).save(any(Role.class));
     }
 
+    @Test
+    void testSavedRoleIsServedFromCatalog() {
+        when(roleRepository.existsByName(roleEntity.getName())).thenReturn(false);
+        when(roleRepository.save(any(Role.class))).thenReturn(roleEntity);
+
+        roleService.saveRole(roleRequestDTO);
+        RoleResponseDTO response = roleService.findRoleByName("ROLE_USER");
+
+        assertEquals(2L, response.id());
+        verify(roleRepository, never()).findViewByName(anyString());
+    }
+
     @Test
     void testSaveRoleNameAlreadyExists() {
         when(roleRepository.existsByName(roleEntity.getName())).thenReturn(true);
@@ -0,0 +1,63 @@
+package org.mounanga.securityservice.service.implementation;
+
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.repository.SchedulerLeaseRepository;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchedulerLeaseManagerTest {
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testOnlyOneNodeHoldsTheLease() {
+        SchedulerLeaseManager first = new SchedulerLeaseManager(leaseRepository, transactionManager);
+        SchedulerLeaseManager second = new SchedulerLeaseManager(leaseRepository, transactionManager);
+
+        assertTrue(first.tryAcquire("job", Duration.ofMinutes(5)));
+        assertFalse(second.tryAcquire("job", Duration.ofMinutes(5)));
+        assertTrue(first.tryAcquire("job", Duration.ofMinutes(5)));
+
+        first.release("job");
+        assertTrue(second.tryAcquire("job", Duration.ofMinutes(5)));
+        assertEquals(second.getOwner(), leaseRepository.findById("job").orElseThrow().getOwner());
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() {
+        SchedulerLeaseManager first = new SchedulerLeaseManager(leaseRepository, transactionManager);
+        SchedulerLeaseManager second = new SchedulerLeaseManager(leaseRepository, transactionManager);
+
+        assertTrue(first.tryAcquire("expiring-job", Duration.ofMillis(-1)));
+        assertTrue(second.tryAcquire("expiring-job", Duration.ofMinutes(5)));
+    }
+}
@@ -0,0 +1,206 @@
+package org.mounanga.securityservice.service.implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.mounanga.securityservice.dto.RoleRequestDTO;
+import org.mounanga.securityservice.dto.UserRequestDTO;
+import org.mounanga.securityservice.dto.UserRoleRequestDTO;
+import org.mounanga.securityservice.entity.CacheRegions;
+import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.RoleRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.util.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// the cache is only written on commit: every step runs in a transaction of its own
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+class SecondLevelCacheTest {
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private UserServiceImpl userService;
+    private RoleServiceImpl roleService;
+    private Long userId;
+    private Long roleId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RoleCatalog roleCatalog = new RoleCatalog(roleRepository, meterRegistry);
+        userService = new UserServiceImpl(userRepository,
+                new UserUniquenessChecker(userRepository, profileRepository, transactionManager, 1000, 0.01, meterRegistry),
+                roleRepository, roleCatalog, mock(PasswordEncoder.class));
+        roleService = new RoleServiceImpl(roleRepository, roleCatalog);
+
+        roleId = transaction.execute(status -> roleRepository.save(Role.builder().name("AUDITOR").description("Auditor").build()).getId());
+        userId = transaction.execute(status -> {
+            User user = Mappers.from(request("jdoe"));
+            user.setPassword("encoded");
+            user.setRoles(new ArrayList<>());
+            return userRepository.save(user).getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaction.executeWithoutResult(status -> userRepository.findById(userId).ifPresent(user -> {
+            // roles are cascaded from the user: detach them before the user goes
+            user.getRoles().clear();
+            userRepository.delete(user);
+        }));
+        transaction.executeWithoutResult(status -> roleRepository.deleteById(roleId));
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testUserAndRolesAreServedFromCache() {
+        loadUser();
+        loadUser();
+
+        assertEquals(1, region(CacheRegions.USER).getHitCount());
+        assertEquals(1, region(CacheRegions.USER_ROLES).getHitCount());
+    }
+
+    @Test
+    void testUserServiceWritesReplaceCachedEntries() {
+        loadUser();
+        UserRequestDTO renamed = request("renamed");
+
+        transaction.executeWithoutResult(status -> userService.updateUser(userId, renamed));
+        transaction.executeWithoutResult(status -> userService.addRoleToUser(new UserRoleRequestDTO(userId, roleId)));
+
+        User user = loadUser();
+        assertEquals("renamed", user.getUsername());
+        assertEquals(List.of(roleId), user.getRoles().stream().map(Role::getId).toList());
+
+        transaction.executeWithoutResult(status -> userService.removeRoleFromUser(new UserRoleRequestDTO(userId, roleId)));
+        assertTrue(loadUser().getRoles().isEmpty());
+    }
+
+    @Test
+    void testBulkPasswordUpdateEvictsCachedUser() {
+        loadUser();
+
+        transaction.executeWithoutResult(status -> userRepository.updatePassword(userId, "rehashed"));
+
+        assertEquals("rehashed", loadUser().getPassword());
+    }
+
+    @Test
+    void testCachedLookupIsInvalidatedByWrites() {
+        transaction.execute(status -> userService.getUserById(userId));
+        transaction.execute(status -> userService.getUserById(userId));
+        assertEquals(1, statistics.getQueryRegionStatistics(CacheRegions.USER_QUERIES).getHitCount());
+
+        transaction.executeWithoutResult(status -> userService.updateUser(userId, request("renamed")));
+
+        assertEquals("renamed@mail.com", transaction.execute(status -> userService.getUserById(userId)).getEmail());
+    }
+
+    @Test
+    void testRoleServiceWritesReplaceCachedRole() {
+        transaction.execute(status -> entityManager.find(Role.class, roleId));
+
+        transaction.executeWithoutResult(status -> roleService.updateRole(roleId, new RoleRequestDTO("AUDITOR", "Read only")));
+        assertEquals("Read only", transaction.execute(status -> entityManager.find(Role.class, roleId)).getDescription());
+        assertTrue(region(CacheRegions.ROLE).getHitCount() > 0);
+
+        transaction.executeWithoutResult(status -> roleService.deleteRoleById(roleId));
+        assertNull(transaction.execute(status -> entityManager.find(Role.class, roleId)));
+    }
+
+    private User loadUser() {
+        return transaction.execute(status -> {
+            User user = entityManager.find(User.class, userId);
+            user.getRoles().size();
+            return user;
+        });
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return statistics.getDomainDataRegionStatistics(name);
+    }
+
+    private static UserRequestDTO request(String username) {
+        return UserRequestDTO.builder()
+                .username(username)
+                .email(username + "@mail.com")
+                .password("PAssword12")
+                .firstname("John")
+                .lastname("Doe")
+                .placeOfBirth("Paris")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .nationality("French")
+                .gender(Gender.M)
+                .personalIdentificationNumber("PIN-" + username)
+                .build();
+    }
+}
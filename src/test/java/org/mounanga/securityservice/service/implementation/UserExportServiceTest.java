@@ -0,0 +1,123 @@
+package org.mounanga.securityservice.service.implementation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.mounanga.securityservice.entity.Profile;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.ExportFormat;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.exception.InvalidExportFormatException;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserExportServiceTest {
+
+    private static final int USERS = UserExportService.CHUNK_SIZE * 2 + 7;
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private UserExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new UserExportService(userRepository, entityManager.getEntityManager(), objectMapper);
+        for (int i = 0; i < USERS; i++) {
+            User user = entityManager.persist(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@mail.com")
+                    .password("encoded")
+                    .enabled(true)
+                    .passwordMustBeModified(false)
+                    .roles(List.of())
+                    .build());
+            entityManager.persist(Profile.builder()
+                    .firstname(i == 0 ? "Doe, \"Jr\"" : "John")
+                    .lastname("Doe")
+                    .placeOfBirth("Paris")
+                    .dateOfBirth(LocalDate.of(1990, 1, 1))
+                    .nationality("French")
+                    .gender(Gender.M)
+                    .personalIdentificationNumber("PIN-" + i)
+                    .user(user)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testNdjsonExportWritesOneUserPerLine() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        exportService.export(ExportFormat.NDJSON, output);
+
+        String[] lines = output.toString(UTF_8).split("\n");
+        assertEquals(USERS, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("user0", first.get("username").asText());
+        assertEquals("Doe, \"Jr\"", first.get("profile").get("firstname").asText());
+    }
+
+    @Test
+    void testCsvExportEscapesValues() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        exportService.export(ExportFormat.CSV, output);
+
+        String[] lines = output.toString(UTF_8).split("\n");
+        assertEquals(USERS + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,username,email"));
+        assertTrue(lines[1].contains(",user0,user0@mail.com,true,false,\"Doe, \"\"Jr\"\"\",Doe,"));
+    }
+
+    @Test
+    void testCsvFormulaIsNeutralized() {
+        assertEquals("'=cmd()", UserExportService.csv("=cmd()"));
+        assertEquals("", UserExportService.csv(null));
+        assertEquals("plain", UserExportService.csv("plain"));
+    }
+
+    @Test
+    void testFormatIsParsedOrRejectedWithAcceptedFormats() {
+        assertEquals(ExportFormat.CSV, ExportFormat.from("csv"));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.from(" NDJSON "));
+
+        InvalidExportFormatException exception = assertThrows(InvalidExportFormatException.class, () -> ExportFormat.from("xml"));
+        assertEquals(List.of("ndjson", "csv"), exception.getAcceptedFormats());
+        assertThrows(InvalidExportFormatException.class, () -> ExportFormat.from(null));
+    }
+}
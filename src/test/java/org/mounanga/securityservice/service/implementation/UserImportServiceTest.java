@@ -0,0 +1,268 @@
+package org.mounanga.securityservice.service.implementation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.mounanga.securityservice.dto.UserImportResultDTO;
+import org.mounanga.securityservice.dto.UserImportRowDTO;
+import org.mounanga.securityservice.dto.UserRequestDTO;
+import org.mounanga.securityservice.entity.Profile;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.exception.FieldError;
+import org.mounanga.securityservice.exception.InvalidImportException;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserImportServiceTest {
+
+    private static final String PASSWORD = "PAssword12";
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+        UserUniquenessChecker uniquenessChecker = new UserUniquenessChecker(userRepository, profileRepository, transactionManager,
+                1000, 0.01, new SimpleMeterRegistry());
+        importService = new UserImportService(userRepository, profileRepository, uniquenessChecker, transactionManager,
+                passwordEncoder, Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, 10, 100, 2);
+
+        User taken = entityManager.persist(User.builder()
+                .username("taken")
+                .email("taken@mail.com")
+                .password("encoded")
+                .enabled(true)
+                .passwordMustBeModified(false)
+                .build());
+        entityManager.persist(Profile.builder()
+                .firstname("John")
+                .lastname("Doe")
+                .placeOfBirth("Paris")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .nationality("French")
+                .gender(Gender.M)
+                .personalIdentificationNumber("PIN-taken")
+                .user(taken)
+                .build());
+        entityManager.flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.close();
+    }
+
+    @Test
+    void testJsonImportWritesEveryChunk() {
+        List<UserRequestDTO> users = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            users.add(user("user" + i));
+        }
+
+        UserImportResultDTO result = importService.importUsers(users);
+        entityManager.clear();
+
+        assertEquals(25, result.imported());
+        assertEquals(0, result.rejected());
+        assertEquals(26, userRepository.count());
+        assertEquals(26, profileRepository.count());
+        UserImportRowDTO last = result.rows().get(24);
+        assertEquals(25, last.row());
+        User saved = userRepository.findById(last.id()).orElseThrow();
+        assertEquals("user24", saved.getUsername());
+        assertEquals("hashed:" + PASSWORD, saved.getPassword());
+        assertTrue(saved.getPasswordMustBeModified());
+        assertEquals("PIN-user24", saved.getProfile().getPersonalIdentificationNumber());
+    }
+
+    @Test
+    void testChunksAreInsertedInBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<UserRequestDTO> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            users.add(user("user" + i));
+        }
+
+        importService.importUsers(users);
+
+        assertEquals(60, statistics.getEntityInsertCount());
+        // per chunk of 10: three uniqueness lookups, then one batch of users and one of profiles
+        assertTrue(statistics.getPrepareStatementCount() < 20, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testRowsAreRejectedOneByOne() {
+        UserRequestDTO existing = user("taken");
+        UserRequestDTO duplicated = user("other");
+        duplicated.setEmail("user1@mail.com");
+        UserRequestDTO weakPassword = user("weak");
+        weakPassword.setPassword("password");
+
+        UserImportResultDTO result = importService.importUsers(List.of(user("user1"), existing, duplicated, weakPassword));
+
+        assertEquals(1, result.imported());
+        assertEquals(3, result.rejected());
+        assertNotNull(result.rows().get(0).id());
+        assertEquals(List.of("username", "email", "personalIdentificationNumber"), fields(result.rows().get(1)));
+        assertEquals(List.of("email"), fields(result.rows().get(2)));
+        assertEquals(List.of("password"), fields(result.rows().get(3)));
+        assertNull(result.rows().get(3).id());
+    }
+
+    @Test
+    void testCsvImport() throws Exception {
+        String csv = """
+                username,email,password,firstname,lastname,placeOfBirth,dateOfBirth,nationality,gender,personalIdentificationNumber
+                alice,alice@mail.com,PAssword12,Alice,"Doe, ""Jr""\",Paris,1990-01-01,French,f,PIN-1
+                bob,bob@mail.com,PAssword12,Bob,Doe,Paris,01/01/1990,French,M,PIN-2
+                """;
+
+        UserImportResultDTO result = importService.importCsv(new StringReader(csv));
+        entityManager.clear();
+
+        assertEquals(1, result.imported());
+        User alice = userRepository.findById(result.rows().get(0).id()).orElseThrow();
+        assertEquals("Doe, \"Jr\"", alice.getProfile().getLastname());
+        assertEquals(Gender.F, alice.getProfile().getGender());
+        assertEquals(List.of("dateOfBirth"), fields(result.rows().get(1)));
+    }
+
+    @Test
+    void testCsvWithUnknownColumnIsRefused() {
+        assertThrows(InvalidImportException.class, () -> importService.importCsv(new StringReader("username,role\nalice,ADMIN\n")));
+    }
+
+    @Test
+    void testImportIsLimitedInSize() {
+        List<UserRequestDTO> users = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            users.add(user("user" + i));
+        }
+        assertThrows(InvalidImportException.class, () -> importService.importUsers(users));
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void testJsonArrayIsImported() throws Exception {
+        String body = "[" + objectMapper.writeValueAsString(user("jane")) + ", null]";
+
+        UserImportResultDTO result = importService.importJson(new ByteArrayInputStream(body.getBytes(UTF_8)));
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.rejected());
+        assertTrue(userRepository.findByUsername("jane").isPresent());
+    }
+
+    @Test
+    void testJsonImportStopsAtTheRowLimit() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 101; i++) {
+            body.append(objectMapper.writeValueAsString(user("user" + i))).append(',');
+        }
+        // never reached: the row past the limit is refused before the rest is read
+        body.append("not json");
+
+        InvalidImportException exception = assertThrows(InvalidImportException.class,
+                () -> importService.importJson(new ByteArrayInputStream(body.toString().getBytes(UTF_8))));
+        assertEquals("An import is limited to 100 rows", exception.getMessage());
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void testJsonImportRefusesAnythingButAnArray() {
+        assertThrows(InvalidImportException.class,
+                () -> importService.importJson(new ByteArrayInputStream("{}".getBytes(UTF_8))));
+        assertThrows(InvalidImportException.class,
+                () -> importService.importJson(new ByteArrayInputStream("[{\"username\":".getBytes(UTF_8))));
+    }
+
+    @Test
+    void testQuotedCsvFieldMaySpanLines() throws Exception {
+        BufferedReader reader = new BufferedReader(new StringReader("a,\"b\r\nc\",\"\"\r\nd\n"));
+
+        assertEquals(List.of("a", "b\r\nc", ""), UserImportService.readCsvRecord(reader));
+        assertEquals(List.of("d"), UserImportService.readCsvRecord(reader));
+        assertNull(UserImportService.readCsvRecord(reader));
+    }
+
+    private static UserRequestDTO user(String username) {
+        return UserRequestDTO.builder()
+                .username(username)
+                .email(username + "@mail.com")
+                .password(PASSWORD)
+                .firstname("John")
+                .lastname("Doe")
+                .placeOfBirth("Paris")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .nationality("French")
+                .gender(Gender.M)
+                .personalIdentificationNumber("PIN-" + username)
+                .build();
+    }
+
+    private static List<String> fields(UserImportRowDTO row) {
+        return row.errors().stream().map(FieldError::field).toList();
+    }
+}
@@ -0,0 +1,183 @@
+package org.mounanga.securityservice.service.implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.configuration.AuditAwareImpl;
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
+import org.mounanga.securityservice.dto.UserResponseDTO;
+import org.mounanga.securityservice.entity.Profile;
+import org.mounanga.securityservice.entity.Role;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.enums.Gender;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.RoleRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Pins the number of SQL statements behind each read of {@code UserRestController}: a regression here means
+ * an association is loaded outside of the entity graph of the use case again.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserServiceImplStatementCountTest {
+
+    private static final int USERS = 5;
+
+    @TestConfiguration
+    static class AuditingConfiguration {
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return new AuditAwareImpl();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserServiceImpl userService;
+    private Statistics statistics;
+    private Long firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        UserUniquenessChecker uniquenessChecker = new UserUniquenessChecker(userRepository, profileRepository, transactionManager,
+                1000, 0.01, new SimpleMeterRegistry());
+        userService = new UserServiceImpl(userRepository, uniquenessChecker, roleRepository,
+                new RoleCatalog(roleRepository, new SimpleMeterRegistry()), mock(PasswordEncoder.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Role admin = entityManager.persist(Role.builder().name("ADMIN").description("Administrator").build());
+        Role user = entityManager.persist(Role.builder().name("USER").description("User").build());
+        for (int i = 0; i < USERS; i++) {
+            User saved = entityManager.persist(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@mail.com")
+                    .password("encoded")
+                    .enabled(true)
+                    .passwordMustBeModified(false)
+                    .roles(new ArrayList<>(List.of(admin, user)))
+                    .build());
+            entityManager.persist(Profile.builder()
+                    .firstname("John")
+                    .lastname("Doe" + i)
+                    .placeOfBirth("Paris")
+                    .dateOfBirth(LocalDate.of(1990, 1, 1))
+                    .nationality("French")
+                    .gender(Gender.M)
+                    .personalIdentificationNumber("PIN-" + i)
+                    .user(saved)
+                    .build());
+            if (i == 0) {
+                firstUserId = saved.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetUserById() {
+        UserResponseDTO user = userService.getUserById(firstUserId);
+
+        assertEquals("Doe0", user.getProfile().getLastname());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUserByUsername() {
+        UserResponseDTO user = userService.getUserByUsername("user1");
+
+        assertEquals("Doe1", user.getProfile().getLastname());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUserByEmail() {
+        UserResponseDTO user = userService.getUserByEmail("user2@mail.com");
+
+        assertEquals("Doe2", user.getProfile().getLastname());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetAllUsers() {
+        List<UserResponseDTO> users = userService.getUsers();
+
+        assertEquals(USERS, users.size());
+        assertTrue(users.stream().allMatch(user -> user.getProfile() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUsersByPage() {
+        List<UserResponseDTO> users = userService.getUsers(0, 3);
+
+        assertEquals(3, users.size());
+        // the page and its count
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearchUsers() {
+        List<UserResponseDTO> users = userService.searchUsers("Doe", 0, 3);
+
+        assertEquals(3, users.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetUsersByCursor() {
+        CursorPageResponseDTO<UserResponseDTO> first = userService.getUsers(null, 3);
+        CursorPageResponseDTO<UserResponseDTO> second = userService.getUsers(first.next(), 3);
+
+        assertEquals(3, first.content().size());
+        assertEquals(USERS - 3, second.content().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearchUsersByCursor() {
+        CursorPageResponseDTO<UserResponseDTO> page = userService.searchUsers("Doe", null, USERS);
+
+        assertEquals(USERS, page.content().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
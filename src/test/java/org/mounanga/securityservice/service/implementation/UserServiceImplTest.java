@@ -1,29 +1,37 @@
 package org.mounanga.securityservice.service.implementation;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mounanga.securityservice.dto.CursorPageResponseDTO;
 import org.mounanga.securityservice.dto.UpdatePasswordRequestDTO;
 import org.mounanga.securityservice.dto.UserRequestDTO;
 import org.mounanga.securityservice.dto.UserResponseDTO;
 import org.mounanga.securityservice.dto.UserRoleRequestDTO;
+import org.mounanga.securityservice.dto.UserView;
 import org.mounanga.securityservice.entity.Profile;
 import org.mounanga.securityservice.entity.Role;
 import org.mounanga.securityservice.entity.User;
 import org.mounanga.securityservice.enums.Gender;
 import org.mounanga.securityservice.exception.FieldValidationException;
+import org.mounanga.securityservice.exception.InvalidCursorException;
 import org.mounanga.securityservice.exception.RoleNotFoundException;
 import org.mounanga.securityservice.exception.UserNotFoundException;
 import org.mounanga.securityservice.repository.ProfileRepository;
 import org.mounanga.securityservice.repository.RoleRepository;
 import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.util.Mappers;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -60,7 +68,10 @@ class UserServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        userService = new UserServiceImpl(userRepository, profileRepository, roleRepository, passwordEncoder);
+        UserUniquenessChecker uniquenessChecker = new UserUniquenessChecker(userRepository, profileRepository,
+                mock(PlatformTransactionManager.class), 1000, 0.01, new SimpleMeterRegistry());
+        userService = new UserServiceImpl(userRepository, uniquenessChecker, roleRepository,
+                new RoleCatalog(roleRepository, new SimpleMeterRegistry()), passwordEncoder);
         Profile profile = Profile.builder().firstname("Brody").lastname("MOUNANGA").dateOfBirth(LocalDate.of(1994,1,1))
                 .placeOfBirth("Gabon").nationality("Gabon").gender(Gender.M).id(1L).personalIdentificationNumber("222222222")
                 .build();
@@ -83,7 +94,7 @@ class UserServiceImplTest {
     @Test
     void testGetUserById(){
         Long id = 1L;
-        when(userRepository.findById(any(Long.class))).thenReturn(Optional.of(user));
+        when(userRepository.findViewById(any(Long.class))).thenReturn(Optional.of(view(user)));
         UserResponseDTO response = userService.getUserById(id);
         assertNotNull(response);
         assertEquals(id, response.getId());
@@ -92,14 +103,14 @@ class UserServiceImplTest {
     @Test
     void testGetUserByIdThrowsUserNotFoundException(){
         Long id = 1L;
-        when(userRepository.findById(any(Long.class))).thenReturn(Optional.empty());
+        when(userRepository.findViewById(any(Long.class))).thenReturn(Optional.empty());
         assertThrows(UserNotFoundException.class, () -> userService.getUserById(id));
     }
 
     @Test
     void testGetUserByEmail(){
         String email = "user@app.com";
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(userRepository.findViewByEmail(anyString())).thenReturn(Optional.of(view(user)));
         UserResponseDTO response = userService.getUserByEmail(email);
         assertNotNull(response);
         assertEquals(email, response.getEmail());
@@ -108,14 +119,14 @@ class UserServiceImplTest {
     @Test
     void testGetUserByEmailThrowsUserNotFoundException(){
         String email = "user@app.com";
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findViewByEmail(anyString())).thenReturn(Optional.empty());
         assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail(email));
     }
 
     @Test
     void testGetUserByUsername(){
         String username = "username";
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(userRepository.findViewByUsername(anyString())).thenReturn(Optional.of(view(user)));
         UserResponseDTO response = userService.getUserByUsername(username);
         assertNotNull(response);
         assertEquals(username, response.getUsername());
@@ -124,13 +135,13 @@ class UserServiceImplTest {
     @Test
     void testGetUserByUsernameThrowsUserNotFoundException(){
         String username = "username";
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findViewByUsername(anyString())).thenReturn(Optional.empty());
         assertThrows(UserNotFoundException.class, () -> userService.getUserByUsername(username));
     }
 
     @Test
     void testGetUsers(){
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findAllViews()).thenReturn(List.of(view(user)));
         List<UserResponseDTO> response = userService.getUsers();
         assertNotNull(response);
         assertEquals(1, response.size());
@@ -141,8 +152,8 @@ class UserServiceImplTest {
         int page = 0;
         int size = 1;
         Pageable pageable = PageRequest.of(page, size);
-        Page<User> userPage = new PageImpl<>(List.of(user));
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
+        Page<UserView> userPage = new PageImpl<>(List.of(view(user)));
+        when(userRepository.findAllViews(pageable)).thenReturn(userPage);
         List<UserResponseDTO> response = userService.getUsers(page, size);
         assertNotNull(response);
         assertEquals(1, response.size());
@@ -154,18 +165,39 @@ class UserServiceImplTest {
         int size = 1;
         String keyword = "brody";
         Pageable pageable = PageRequest.of(page, size);
-        Page<User> userPage = new PageImpl<>(List.of(user));
+        Page<UserView> userPage = new PageImpl<>(List.of(view(user)));
         when(userRepository.search("%"+keyword+"%",pageable)).thenReturn(userPage);
         List<UserResponseDTO> response = userService.searchUsers(keyword, page, size);
         assertNotNull(response);
         assertEquals(1, response.size());
     }
 
+    @Test
+    void testGetUsersByCursor(){
+        User next = User.builder().id(2L).username("username2").email("user2@app.com").build();
+        Pageable pageable = PageRequest.of(0, 1);
+        when(userRepository.findFirstPage(pageable)).thenReturn(new SliceImpl<>(List.of(view(user)), pageable, true));
+        when(userRepository.findPageAfter("username", 1L, pageable)).thenReturn(new SliceImpl<>(List.of(view(next)), pageable, false));
+
+        CursorPageResponseDTO<UserResponseDTO> first = userService.getUsers(null, 1);
+        assertEquals(1L, first.content().get(0).getId());
+        assertNotNull(first.next());
+
+        CursorPageResponseDTO<UserResponseDTO> second = userService.getUsers(first.next(), 1);
+        assertEquals(2L, second.content().get(0).getId());
+        assertNull(second.next());
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void testGetUsersWithInvalidCursor(){
+        assertThrows(InvalidCursorException.class, () -> userService.getUsers("garbage", 1));
+    }
+
     @Test
     void testCreateUser(){
-        when(userRepository.existsByUsername(userRequestDTO.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(userRequestDTO.getEmail())).thenReturn(false);
-        when(profileRepository.existsByPersonalIdentificationNumber(userRequestDTO.getPersonalIdentificationNumber())).thenReturn(false);
+        when(userRepository.findFieldsInUse(userRequestDTO.getUsername(), userRequestDTO.getEmail(),
+                userRequestDTO.getPersonalIdentificationNumber())).thenReturn(List.of());
         when(passwordEncoder.encode(userRequestDTO.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
         UserResponseDTO response = userService.createUser(userRequestDTO);
@@ -176,9 +208,8 @@ class UserServiceImplTest {
 
     @Test
     void testCreateUserFailureDueToNonUniqueFields() {
-        when(userRepository.existsByUsername(userRequestDTO.getUsername())).thenReturn(true);
-        when(userRepository.existsByEmail(userRequestDTO.getEmail())).thenReturn(false);
-        when(profileRepository.existsByPersonalIdentificationNumber(userRequestDTO.getPersonalIdentificationNumber())).thenReturn(false);
+        when(userRepository.findFieldsInUse(userRequestDTO.getUsername(), userRequestDTO.getEmail(),
+                userRequestDTO.getPersonalIdentificationNumber())).thenReturn(List.of("username"));
 
         FieldValidationException exception = assertThrows(FieldValidationException.class, () -> userService.createUser(userRequestDTO));
 
@@ -186,6 +217,20 @@ class UserServiceImplTest {
         assertEquals(1, exception.getFieldErrors().size());
         assertEquals("username", exception.getFieldErrors().getFirst().field());
         assertEquals("Username is already in use", exception.getFieldErrors().getFirst().message());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testCreateUserLosingUniquenessRace() {
+        when(userRepository.findFieldsInUse(userRequestDTO.getUsername(), userRequestDTO.getEmail(),
+                userRequestDTO.getPersonalIdentificationNumber())).thenReturn(List.of(), List.of("email"));
+        when(passwordEncoder.encode(userRequestDTO.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        FieldValidationException exception = assertThrows(FieldValidationException.class, () -> userService.createUser(userRequestDTO));
+
+        assertEquals(1, exception.getFieldErrors().size());
+        assertEquals("email", exception.getFieldErrors().getFirst().field());
     }
 
     @Test
@@ -198,9 +243,8 @@ class UserServiceImplTest {
         userRequestDTO.setPassword("password123");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmail(userRequestDTO.getEmail())).thenReturn(false);
-        when(userRepository.existsByUsername(userRequestDTO.getUsername())).thenReturn(false);
-        when(profileRepository.existsByPersonalIdentificationNumber(userRequestDTO.getPersonalIdentificationNumber())).thenReturn(false);
+        when(userRepository.findFieldsInUse(userRequestDTO.getUsername(), userRequestDTO.getEmail(),
+                userRequestDTO.getPersonalIdentificationNumber())).thenReturn(List.of());
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         UserResponseDTO response = userService.updateUser(1L, userRequestDTO);
@@ -230,7 +274,8 @@ class UserServiceImplTest {
     @Test
     void testAddRoleToUserSuccess() {
         when(userRepository.findById(userRoleRequestDTO.userId())).thenReturn(Optional.of(user));
-        when(roleRepository.findById(userRoleRequestDTO.roleId())).thenReturn(Optional.of(role));
+        when(roleRepository.findViewById(userRoleRequestDTO.roleId())).thenReturn(Optional.of(Mappers.from(role)));
+        when(roleRepository.getReferenceById(role.getId())).thenReturn(role);
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         UserResponseDTO response = userService.addRoleToUser(userRoleRequestDTO);
@@ -252,17 +297,30 @@ class UserServiceImplTest {
     @Test
     void testAddRoleToUserRoleNotFound() {
         when(userRepository.findById(userRoleRequestDTO.userId())).thenReturn(Optional.of(user));
-        when(roleRepository.findById(userRoleRequestDTO.roleId())).thenReturn(Optional.empty());
+        when(roleRepository.findViewById(userRoleRequestDTO.roleId())).thenReturn(Optional.empty());
 
         RoleNotFoundException exception = assertThrows(RoleNotFoundException.class, () -> userService.addRoleToUser(userRoleRequestDTO));
         assertEquals("role with id '1' not found", exception.getMessage());
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void testAddRoleToUserRoleDeletedElsewhere() {
+        when(userRepository.findById(userRoleRequestDTO.userId())).thenReturn(Optional.of(user));
+        when(roleRepository.findViewById(userRoleRequestDTO.roleId())).thenReturn(Optional.of(Mappers.from(role)));
+        when(roleRepository.getReferenceById(role.getId())).thenReturn(role);
+        when(userRepository.save(any(User.class))).thenReturn(user);
+        doThrow(new DataIntegrityViolationException("fk_user_role_role")).when(userRepository).flush();
+
+        RoleNotFoundException exception = assertThrows(RoleNotFoundException.class, () -> userService.addRoleToUser(userRoleRequestDTO));
+        assertEquals("role with id '1' not found", exception.getMessage());
+    }
+
     @Test
     void testRemoveRoleFromUserSuccess() {
         when(userRepository.findById(userRoleRequestDTO.userId())).thenReturn(Optional.of(user));
-        when(roleRepository.findById(userRoleRequestDTO.roleId())).thenReturn(Optional.of(role));
+        user.getRoles().add(role);
+        when(roleRepository.findViewById(userRoleRequestDTO.roleId())).thenReturn(Optional.of(Mappers.from(role)));
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         UserResponseDTO response = userService.removeRoleFromUser(userRoleRequestDTO);
@@ -275,7 +333,7 @@ class UserServiceImplTest {
     @Test
     void testRemoveRoleFromUserRoleNotFound() {
         when(userRepository.findById(userRoleRequestDTO.userId())).thenReturn(Optional.of(user));
-        when(roleRepository.findById(userRoleRequestDTO.roleId())).thenReturn(Optional.empty());
+        when(roleRepository.findViewById(userRoleRequestDTO.roleId())).thenReturn(Optional.empty());
         assertThrows(RoleNotFoundException.class, () -> userService.removeRoleFromUser(userRoleRequestDTO));
     }
 
@@ -339,4 +397,13 @@ class UserServiceImplTest {
 
 
 
-}
\ No newline at end of file
+
+    private static UserView view(User user) {
+        Profile profile = user.getProfile() == null ? new Profile() : user.getProfile();
+        return new UserView(user.getId(), user.getUsername(), user.getEmail(), user.getEnabled(), user.getCreatedDate(), user.getCreatedBy(),
+                user.getLastModifiedDate(), user.getLastModifiedBy(), user.getPasswordMustBeModified(), profile.getId(), profile.getFirstname(),
+                profile.getLastname(), profile.getPlaceOfBirth(), profile.getDateOfBirth(), profile.getNationality(), profile.getGender(),
+                profile.getPersonalIdentificationNumber(), profile.getCreatedDate(), profile.getCreatedBy(), profile.getLastModifiedDate(),
+                profile.getLastModifiedBy());
+    }
+}
@@ -0,0 +1,83 @@
+package org.mounanga.securityservice.service.implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.mounanga.securityservice.exception.FieldError;
+import org.mounanga.securityservice.repository.ProfileRepository;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+// the repository stubs are shared by every test, the first one never builds the filters
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserUniquenessCheckerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    private UserUniquenessChecker uniquenessChecker;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamUsernames()).thenReturn(Stream.of("jdoe", "asmith"));
+        when(userRepository.streamEmails()).thenReturn(Stream.of("jdoe@mail.com", "asmith@mail.com"));
+        when(profileRepository.streamPersonalIdentificationNumbers()).thenReturn(Stream.of("PIN-1", "PIN-2"));
+        uniquenessChecker = new UserUniquenessChecker(userRepository, profileRepository, mock(PlatformTransactionManager.class),
+                1000, 0.01, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testEverythingGoesToDatabaseBeforeFirstBuild() {
+        when(userRepository.findFieldsInUse("new", "new@mail.com", "PIN-3")).thenReturn(List.of());
+
+        assertTrue(uniquenessChecker.findConflicts("new", "new@mail.com", "PIN-3").isEmpty());
+        verify(userRepository).findFieldsInUse("new", "new@mail.com", "PIN-3");
+    }
+
+    @Test
+    void testFreeValuesAreNotLookedUp() {
+        uniquenessChecker.rebuild();
+
+        assertTrue(uniquenessChecker.findConflicts("new", "new@mail.com", "PIN-3").isEmpty());
+        verify(userRepository, never()).findFieldsInUse(any(), any(), any());
+    }
+
+    @Test
+    void testOnlyValuesPossiblyTakenAreLookedUp() {
+        uniquenessChecker.rebuild();
+        when(userRepository.findFieldsInUse(null, "JDoe@mail.com", null)).thenReturn(List.of("email"));
+
+        List<FieldError> errors = uniquenessChecker.findConflicts("new", "JDoe@mail.com", "PIN-3");
+
+        assertEquals(List.of(new FieldError("email", "Email is already in use")), errors);
+    }
+
+    @Test
+    void testRecordedValuesAreNoLongerProvenFree() {
+        uniquenessChecker.rebuild();
+        assertFalse(uniquenessChecker.mightExist(UserUniquenessChecker.USERNAME, "new"));
+
+        uniquenessChecker.record("new", "new@mail.com", "PIN-3");
+
+        assertTrue(uniquenessChecker.mightExist(UserUniquenessChecker.USERNAME, "NEW"));
+        assertTrue(uniquenessChecker.mightExist(UserUniquenessChecker.EMAIL, "new@mail.com"));
+        assertTrue(uniquenessChecker.mightExist(UserUniquenessChecker.PERSONAL_IDENTIFICATION_NUMBER, "PIN-3"));
+    }
+}
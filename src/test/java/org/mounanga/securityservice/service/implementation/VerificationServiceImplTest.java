@@ -0,0 +1,156 @@
+package org.mounanga.securityservice.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mounanga.securityservice.configuration.ApplicationProperties;
+import org.mounanga.securityservice.dto.MailDTO;
+import org.mounanga.securityservice.dto.ResetPasswordRequestDTO;
+import org.mounanga.securityservice.dto.VerificationRequestDTO;
+import org.mounanga.securityservice.entity.User;
+import org.mounanga.securityservice.entity.Verification;
+import org.mounanga.securityservice.exception.UserNotFoundException;
+import org.mounanga.securityservice.exception.VerificationAttemptsExceededException;
+import org.mounanga.securityservice.exception.VerificationCodeExpiredException;
+import org.mounanga.securityservice.exception.VerificationNotFoundException;
+import org.mounanga.securityservice.repository.UserRepository;
+import org.mounanga.securityservice.security.VerificationCodeGenerator;
+import org.mounanga.securityservice.security.VerificationCodeHasher;
+import org.mounanga.securityservice.service.VerificationStore;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class VerificationServiceImplTest {
+
+    private static final String EMAIL = "jdoe@mail.com";
+
+    @Mock
+    private VerificationStore verificationStore;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private MailingService mailingService;
+
+    @Mock
+    private ApplicationProperties properties;
+
+    private final VerificationCodeGenerator codeGenerator = new VerificationCodeGenerator(6, "0123456789", 0, new SecureRandom());
+    private final VerificationCodeHasher codeHasher = new VerificationCodeHasher("test-key");
+    private VerificationServiceImpl verificationService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        verificationService = new VerificationServiceImpl(verificationStore, userRepository, passwordEncoder, mailingService, codeGenerator, codeHasher, properties);
+        user = User.builder().id(1L).username("jdoe").email(EMAIL).password("old").build();
+        when(properties.getVerificationMaxAttempts()).thenReturn(5);
+        when(verificationStore.tryAttempt(EMAIL, 5)).thenReturn(true);
+    }
+
+    @Test
+    void testOnlyTheHashOfTheCodeIsStored() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        verificationService.requestVerification(new VerificationRequestDTO(EMAIL));
+
+        ArgumentCaptor<Verification> verification = ArgumentCaptor.forClass(Verification.class);
+        ArgumentCaptor<MailDTO> mail = ArgumentCaptor.forClass(MailDTO.class);
+        verify(verificationStore).save(verification.capture());
+        verify(mailingService).send(mail.capture());
+        String code = mail.getValue().body().replaceAll("\\D*(\\d{6}).*", "$1");
+        assertEquals(codeHasher.hash(code), verification.getValue().getCodeHash());
+        assertEquals(0, verification.getValue().getAttempts());
+    }
+
+    @Test
+    void testResetPasswordWithValidCode() {
+        Verification verification = verification(0, LocalDateTime.now().plusMinutes(10));
+        when(verificationStore.find(EMAIL, codeHasher.hash("123456"))).thenReturn(Optional.of(verification));
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("NewPassw0rd!")).thenReturn("encoded");
+
+        verificationService.resetPassword(new ResetPasswordRequestDTO("123456", EMAIL, "NewPassw0rd!"));
+
+        verify(verificationStore).delete(verification);
+        assertEquals("encoded", user.getPassword());
+        verify(mailingService).send(any(MailDTO.class));
+    }
+
+    @Test
+    void testCodeIsKeptWhenThePasswordUpdateFails() {
+        Verification verification = verification(0, LocalDateTime.now().plusMinutes(10));
+        when(verificationStore.find(EMAIL, codeHasher.hash("123456"))).thenReturn(Optional.of(verification));
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        ResetPasswordRequestDTO request = new ResetPasswordRequestDTO("123456", EMAIL, "NewPassw0rd!");
+        assertThrows(UserNotFoundException.class, () -> verificationService.resetPassword(request));
+        verify(verificationStore, never()).delete(any(Verification.class));
+        verify(mailingService, never()).send(any(MailDTO.class));
+    }
+
+    @Test
+    void testWrongCodeCountsAsAttempt() {
+        when(verificationStore.find(EMAIL, codeHasher.hash("000000"))).thenReturn(Optional.empty());
+        when(verificationStore.isLocked(EMAIL, 5)).thenReturn(false);
+
+        ResetPasswordRequestDTO request = new ResetPasswordRequestDTO("000000", EMAIL, "NewPassw0rd!");
+        assertThrows(VerificationNotFoundException.class, () -> verificationService.resetPassword(request));
+        verify(verificationStore).tryAttempt(EMAIL, 5);
+    }
+
+    @Test
+    void testGuessingIsCutOffAfterMaxAttempts() {
+        when(verificationStore.tryAttempt(EMAIL, 5)).thenReturn(false);
+        when(verificationStore.isLocked(EMAIL, 5)).thenReturn(true);
+
+        ResetPasswordRequestDTO request = new ResetPasswordRequestDTO("000000", EMAIL, "NewPassw0rd!");
+        assertThrows(VerificationAttemptsExceededException.class, () -> verificationService.resetPassword(request));
+    }
+
+    @Test
+    void testRightCodeIsRefusedOnceLocked() {
+        Verification verification = verification(5, LocalDateTime.now().plusMinutes(10));
+        when(verificationStore.find(EMAIL, codeHasher.hash("123456"))).thenReturn(Optional.of(verification));
+        when(verificationStore.tryAttempt(EMAIL, 5)).thenReturn(false);
+        when(verificationStore.isLocked(EMAIL, 5)).thenReturn(true);
+
+        ResetPasswordRequestDTO request = new ResetPasswordRequestDTO("123456", EMAIL, "NewPassw0rd!");
+        assertThrows(VerificationAttemptsExceededException.class, () -> verificationService.resetPassword(request));
+        verify(verificationStore, never()).find(any(), any());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testExpiredCode() {
+        Verification verification = verification(0, LocalDateTime.now().minusMinutes(1));
+        when(verificationStore.find(EMAIL, codeHasher.hash("123456"))).thenReturn(Optional.of(verification));
+
+        ResetPasswordRequestDTO request = new ResetPasswordRequestDTO("123456", EMAIL, "NewPassw0rd!");
+        assertThrows(VerificationCodeExpiredException.class, () -> verificationService.resetPassword(request));
+    }
+
+    private Verification verification(int attempts, LocalDateTime expires) {
+        return Verification.builder()
+                .id("id")
+                .email(EMAIL)
+                .codeHash(codeHasher.hash("123456"))
+                .attempts(attempts)
+                .expires(expires)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package org.mounanga.securityservice.util;
+
+import org.junit.jupiter.api.Test;
+import org.mounanga.securityservice.exception.InvalidCursorException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+    @Test
+    void testCursorRoundTrip() {
+        String token = CursorCodec.encode("jdoe\nwith separator é", 42L);
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        CursorCodec.Cursor cursor = CursorCodec.decode(token);
+        assertEquals("jdoe\nwith separator é", cursor.sortKey());
+        assertEquals(42L, cursor.id());
+    }
+
+    @Test
+    void testTamperedCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("not base64!"));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("bm8tc2VwYXJhdG9y"));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("YWJjCmpkb2U"));
+    }
+}
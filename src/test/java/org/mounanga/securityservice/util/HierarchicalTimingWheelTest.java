@@ -0,0 +1,73 @@
+package org.mounanga.securityservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private HierarchicalTimingWheel<Long> wheel;
+    private List<Long> expired;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HierarchicalTimingWheel<>(10L, 8, 3, 0L);
+        expired = new ArrayList<>();
+    }
+
+    @Test
+    void testTimeoutsFireAtTheirTickOnEveryLevel() {
+        long[] deadlines = {10L, 70L, 80L, 640L, 5_000L, 50_000L};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        for (long now = 10L; now <= 50_000L; now += 10L) {
+            long current = now;
+            wheel.advance(now, deadline -> {
+                assertEquals(current, deadline);
+                expired.add(deadline);
+            });
+        }
+        assertEquals(deadlines.length, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testLargeJumpFiresEverythingDue() {
+        wheel.schedule(1L, 100L);
+        wheel.schedule(2L, 3_000L);
+        wheel.schedule(3L, 9_000L);
+
+        wheel.advance(5_000L, expired::add);
+
+        assertEquals(List.of(1L, 2L), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void testCancelledTimeoutNeverFires() {
+        HierarchicalTimingWheel<Long>.Timeout timeout = wheel.schedule(1L, 1_000L);
+        wheel.schedule(2L, 1_000L);
+
+        timeout.cancel();
+        wheel.advance(2_000L, expired::add);
+
+        assertEquals(List.of(2L), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() {
+        wheel.advance(100L, expired::add);
+        wheel.schedule(1L, 50L);
+
+        wheel.advance(100L, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(110L, expired::add);
+        assertEquals(List.of(1L), expired);
+    }
+}
@@ -0,0 +1,58 @@
+package org.mounanga.securityservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final ObjectPool<Object> pool = new ObjectPool<>(() -> {
+        created.incrementAndGet();
+        return new Object();
+    }, 2);
+
+    @Test
+    void testPlatformThreadKeepsItsInstance() {
+        Object first = pool.acquire();
+        pool.release(first);
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, created.get());
+        assertEquals(0, pool.pooled());
+    }
+
+    @Test
+    void testVirtualThreadsReuseReleasedInstances() throws InterruptedException {
+        AtomicReference<Object> first = new AtomicReference<>();
+        AtomicReference<Object> second = new AtomicReference<>();
+        Thread.ofVirtual().start(() -> useOnce(first)).join();
+        Thread.ofVirtual().start(() -> useOnce(second)).join();
+
+        assertSame(first.get(), second.get());
+        assertEquals(1, created.get());
+        assertEquals(1, pool.pooled());
+    }
+
+    @Test
+    void testPoolIsBounded() throws InterruptedException {
+        Thread.ofVirtual().start(() -> {
+            Object[] instances = {pool.acquire(), pool.acquire(), pool.acquire()};
+            for (Object instance : instances) {
+                pool.release(instance);
+            }
+        }).join();
+
+        assertEquals(3, created.get());
+        assertEquals(2, pool.pooled());
+    }
+
+    private void useOnce(AtomicReference<Object> used) {
+        Object instance = pool.acquire();
+        used.set(instance);
+        pool.release(instance);
+    }
+}